@@ -0,0 +1,51 @@
+package controller;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks da IA: avaliação estática e busca em profundidade fixa (sem o timer
+ * nem a escolha por dificuldade de findBestMove). A tabela de transposição é pequena e
+ * esvaziada a cada busca, para que cada operação pesquise a árvore do zero.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AIControllerBenchmark {
+
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.ENDGAME})
+    public String phase;
+
+    @Param({"5"})
+    public int depth;
+
+    // Liga/desliga lance nulo e LMR juntos, para comparar a busca com e sem seletividade.
+    @Param({"true", "false"})
+    public boolean selective;
+
+    private AIController ai;
+    private Game game;
+
+    @Setup
+    public void setUp() {
+        ai = new AIController(1);
+        ai.setNullMovePruning(selective);
+        ai.setLateMoveReductions(selective);
+        game = BenchmarkPositions.game(phase);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int evaluateBoard() {
+        return ai.evaluateBoard(game, game.whiteToMove());
+    }
+
+    @Benchmark
+    public int minimax() {
+        ai.clearHash();
+        return ai.searchFixedDepth(game, depth);
+    }
+}
@@ -0,0 +1,38 @@
+package controller;
+
+/**
+ * Posições usadas pelos benchmarks, uma por fase da partida. Cada benchmark recebe o nome
+ * da fase como parâmetro JMH (@Param) e carrega a posição com {@link Game#loadFen}.
+ */
+public final class BenchmarkPositions {
+
+    public static final String OPENING = "opening";
+    public static final String MIDDLEGAME = "middlegame";
+    public static final String ENDGAME = "endgame";
+
+    private BenchmarkPositions() {}
+
+    /**
+     * @return A FEN da fase informada ("opening", "middlegame" ou "endgame").
+     */
+    public static String fen(String phase) {
+        return switch (phase) {
+            // Italiana após 3...Cf6: todas as peças em jogo, poucos lances de cada lado.
+            case OPENING -> "r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+            // "Kiwipete": muitas capturas, cravadas, roques e promoções em potencial.
+            case MIDDLEGAME -> "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+            // Final de torres com peões.
+            case ENDGAME -> "8/5pk1/6p1/3R4/1r6/6P1/5PK1/8 w - - 0 40";
+            default -> throw new IllegalArgumentException("Fase desconhecida: " + phase);
+        };
+    }
+
+    /**
+     * @return Um novo jogo já posicionado na fase informada.
+     */
+    public static Game game(String phase) {
+        Game game = new Game();
+        game.loadFen(fen(phase));
+        return game;
+    }
+}
@@ -0,0 +1,73 @@
+package controller;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.board.Position;
+import model.pieces.Piece;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks das regras do jogo: geração de lances legais, execução de um lance
+ * pela API pública e detecção de xeque-mate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.ENDGAME})
+    public String phase;
+
+    private Game game;
+    private Position[] ownSquares;
+    private Position moveFrom, moveTo;
+    private Character movePromotion;
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkPositions.game(phase);
+        boolean white = game.whiteToMove();
+        ownSquares = new Position[game.board().pieceCount(white)];
+        for (int i = 0; i < ownSquares.length; i++) {
+            Piece p = game.board().getPiece(white, i);
+            ownSquares[i] = p.getPosition();
+        }
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+        int move = moves.get(0);
+        moveFrom = Position.of(Move.from(move));
+        moveTo = Position.of(Move.to(move));
+        movePromotion = Move.promotionChar(move);
+    }
+
+    /**
+     * Lances legais de todas as peças do lado que joga, como a interface e a avaliação os pedem.
+     */
+    @Benchmark
+    public void legalMovesFrom(Blackhole bh) {
+        for (Position from : ownSquares) {
+            List<Position> targets = game.legalMovesFrom(from);
+            bh.consume(targets);
+        }
+    }
+
+    /**
+     * Game.move não tem um inverso barato além de undoMove, então o par é medido junto
+     * (o estado volta ao inicial a cada operação).
+     */
+    @Benchmark
+    public boolean moveAndUndo() {
+        boolean moved = game.move(moveFrom, moveTo, movePromotion);
+        game.undoMove();
+        return moved;
+    }
+
+    @Benchmark
+    public boolean isCheckmate() {
+        return game.isCheckmate(game.whiteToMove());
+    }
+}
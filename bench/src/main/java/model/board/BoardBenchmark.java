@@ -0,0 +1,38 @@
+package model.board;
+
+import controller.BenchmarkPositions;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks das operações do tabuleiro: cópia (feita pela IA ao copiar o jogo para a busca)
+ * e geração da FEN (usada ao exportar a posição).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.ENDGAME})
+    public String phase;
+
+    private Board board;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.game(phase).board();
+    }
+
+    @Benchmark
+    public Board copy() {
+        return board.copy();
+    }
+
+    @Benchmark
+    public String getFenPosition() {
+        return board.getFenPosition();
+    }
+}
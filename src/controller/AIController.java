@@ -1,76 +1,254 @@
 package controller;
 
+import controller.SearchWorker.MoveScore;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
 import javax.swing.SwingWorker;
+import model.board.Bitboards;
 import model.board.Board;
+import model.board.PieceSquareTables;
 import model.board.Position;
-import model.pieces.*;
+import model.pieces.Piece;
 
 /**
  * Controla a lógica da Inteligência Artificial (IA).
- * Utiliza um algoritmo Minimax com poda Alfa-Beta e a técnica de aprofundamento iterativo
- * para calcular o melhor movimento dentro de um limite de tempo.
+ * A busca em si (Minimax na forma negamax com Alfa-Beta, PVS, tabela de transposição,
+ * quiescência e aprofundamento iterativo) fica em {@link SearchWorker}; esta classe
+ * configura a busca, a distribui entre as threads (Lazy SMP) e escolhe o lance conforme
+ * a dificuldade.
  * A avaliação da IA é aprimorada com Piece-Square Tables (PST) e bônus de mobilidade.
  */
 public class AIController {
 
-    // Estrutura interna para representar um movimento (de 'from' para 'to').
+    // Movimento escolhido pela IA, entregue à interface (de 'from' para 'to', com a peça de promoção, se houver).
+    // Internamente a busca usa lances codificados em int (ver Move).
     public static class AIMove {
         public final Position from, to;
-        public AIMove(Position f, Position t) { this.from = f; this.to = t; }
+        public final Character promotion;
+        public AIMove(Position f, Position t) { this(f, t, null); }
+        public AIMove(Position f, Position t, Character promotion) { this.from = f; this.to = t; this.promotion = promotion; }
     }
 
-    // Estrutura interna que associa um movimento a sua pontuação para facilitar a ordenação.
-    private record MoveScore(AIMove move, int score) {}
+    // Tamanho padrão da tabela de transposição, em MB.
+    public static final int DEFAULT_HASH_MB = 32;
+    // Tamanho padrão do cache de avaliação, em MB.
+    public static final int DEFAULT_EVAL_CACHE_MB = 4;
+
+    // Pontos por casa alcançável, por tipo de peça (peões e rei não contam).
+    private static final int[] MOBILITY_WEIGHT = {0, 4, 5, 2, 1, 0};
+
+    // Bônus de final para um peão passado com a casa da frente livre, por fileira relativa.
+    private static final int[] FREE_PASSER_EG = {0, 0, 5, 10, 20, 35, 60, 0};
+
+    // Entradas da tabela de estrutura de peões de cada thread.
+    static final int PAWN_HASH_ENTRIES = 1 << 14;
+
+    // Tabela de peões usada por quem avalia fora da busca (a busca usa a do próprio SearchWorker).
+    private final PawnHashTable pawnHash = new PawnHashTable(PAWN_HASH_ENTRIES);
+
+    private TranspositionTable tt;
+    private EvalCache evalCache = new EvalCache(DEFAULT_EVAL_CACHE_MB);
+
+    // Livro de aberturas consultado antes de cada busca (null = sem livro).
+    private volatile OpeningBook openingBook;
+    // Tabelas de finais consultadas pela busca (null = sem tabelas).
+    private volatile Tablebase tablebase;
+
+    // Liga/desliga as buscas seletivas (para comparar a força e a velocidade com e sem elas).
+    private volatile boolean nullMovePruning = true;
+    private volatile boolean lateMoveReductions = true;
+
+    // Lazy SMP: a thread da busca (SwingWorker) usa workers[0]; as threads auxiliares do pool
+    // buscam a mesma raiz com os demais workers, compartilhando apenas a tabela de transposição.
+    private SearchWorker[] workers;
+    private ExecutorService helperPool;
+
+    // Nós por thread e duração da última busca.
+    private volatile SearchStats lastStats;
 
     // Flag volátil para sinalizar a interrupção da busca por tempo.
-    // Garante consistência entre a thread do timer e a de busca.
+    // Garante consistência entre a thread do timer e as de busca.
     private volatile boolean timeUp;
 
-    // --- Piece-Square Tables (PST) ---
-    // As tabelas a seguir dão um bônus ou penalidade para a posição de cada peça.
-    // Elas incentivam a IA a dominar o centro, posicionar bem as peças e proteger o rei.
-    // As tabelas são definidas para as peças brancas; para as pretas, as linhas são invertidas.
-    private static final int[] PAWN_TABLE = {
-        0,  0,  0,  0,  0,  0,  0,  0, 50, 50, 50, 50, 50, 50, 50, 50,
-        10, 10, 20, 30, 30, 20, 10, 10,  5,  5, 10, 25, 25, 10,  5,  5,
-         0,  0,  0, 20, 20,  0,  0,  0,  5, -5,-10,  0,  0,-10, -5,  5,
-         5, 10, 10,-20,-20, 10, 10,  5,  0,  0,  0,  0,  0,  0,  0,  0
-    };
-    private static final int[] KNIGHT_TABLE = {
-        -50,-40,-30,-30,-30,-30,-40,-50,-40,-20,  0,  0,  0,  0,-20,-40,
-        -30,  0, 10, 15, 15, 10,  0,-30,-30,  5, 15, 20, 20, 15,  5,-30,
-        -30,  0, 15, 20, 20, 15,  0,-30,-30,  5, 10, 15, 15, 10,  5,-30,
-        -40,-20,  0,  5,  5,  0,-20,-40,-50,-40,-30,-30,-30,-30,-40,-50,
-    };
-    private static final int[] BISHOP_TABLE = {
-        -20,-10,-10,-10,-10,-10,-10,-20,-10,  0,  0,  0,  0,  0,  0,-10,
-        -10,  0,  5, 10, 10,  5,  0,-10,-10,  5,  5, 10, 10,  5,  5,-10,
-        -10,  0, 10, 10, 10, 10,  0,-10,-10, 10, 10, 10, 10, 10, 10,-10,
-        -10,  5,  0,  0,  0,  0,  5,-10,-20,-10,-10,-10,-10,-10,-10,-20,
-    };
-    // Tabela de Rei para meio de jogo, priorizando a segurança e o roque.
-    private static final int[] KING_TABLE_MIDDLEGAME = {
-        -30,-40,-40,-50,-50,-40,-40,-30,-30,-40,-40,-50,-50,-40,-40,-30,
-        -30,-40,-40,-50,-50,-40,-40,-30,-30,-40,-40,-50,-50,-40,-40,-30,
-        -20,-30,-30,-40,-40,-30,-30,-20,-10,-20,-20,-20,-20,-20,-20,-10,
-         20, 20,  0,  0,  0,  0, 20, 20, 20, 30, 10,  0,  0, 10, 30, 20
-    };
-    // Tabela de Rei para final de jogo, incentivando o rei a se tornar uma peça ativa e centralizada.
-    private static final int[] KING_TABLE_ENDGAME = {
-        -50,-40,-30,-20,-20,-30,-40,-50, -30,-20,-10,  0,  0,-10,-20,-30,
-        -30,-10, 20, 30, 30, 20,-10,-30, -30,-10, 30, 40, 40, 30,-10,-30,
-        -30,-10, 30, 40, 40, 30,-10,-30, -30,-10, 20, 30, 30, 20,-10,-30,
-        -30,-20,-10,  0,  0,-10,-20,-30, -50,-40,-30,-20,-20,-30,-40,-50,
-    };
+    /**
+     * Estatísticas da última busca: nós visitados por thread, duração e acertos/falhas do cache
+     * de avaliação. A velocidade de cada thread (nós/s) permite verificar como a busca escala
+     * com o número de threads.
+     */
+    public record SearchStats(long[] nodesPerThread, long elapsedNanos, long evalCacheHits, long evalCacheMisses) {
+        public int threads() {
+            return nodesPerThread.length;
+        }
+
+        public long totalNodes() {
+            long total = 0;
+            for (long n : nodesPerThread) total += n;
+            return total;
+        }
+
+        public long nodesPerSecond() {
+            return elapsedNanos > 0 ? totalNodes() * 1_000_000_000L / elapsedNanos : 0;
+        }
+
+        public long nodesPerSecond(int thread) {
+            return elapsedNanos > 0 ? nodesPerThread[thread] * 1_000_000_000L / elapsedNanos : 0;
+        }
+
+        public double evalCacheHitRate() {
+            long probes = evalCacheHits + evalCacheMisses;
+            return probes > 0 ? (double) evalCacheHits / probes : 0.0;
+        }
+
+        /**
+         * @return Resumo de uma linha: nós, tempo, nós/s no total e por thread e acertos do cache.
+         */
+        public String summary() {
+            StringBuilder sb = new StringBuilder(String.format("%,d nós em %.2f s, %,d nós/s",
+                    totalNodes(), elapsedNanos / 1e9, nodesPerSecond()));
+            if (threads() > 1) {
+                sb.append(" (por thread:");
+                for (int i = 0; i < threads(); i++) sb.append(String.format(" %,d", nodesPerSecond(i)));
+                sb.append(')');
+            }
+            sb.append(String.format(", cache de avaliação %.0f%%", 100 * evalCacheHitRate()));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Número de threads de busca do construtor padrão: um processador fica livre para a
+     * interface, e mais de 4 threads rendem pouco na busca Lazy SMP de uma partida interativa.
+     */
+    public static final int DEFAULT_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * Cria a IA com a tabela de transposição padrão e {@link #DEFAULT_THREADS} threads de busca.
+     */
+    public AIController() {
+        this(DEFAULT_HASH_MB, DEFAULT_THREADS);
+    }
+
+    /**
+     * @param hashMb Tamanho da tabela de transposição em MB.
+     */
+    public AIController(int hashMb) {
+        this(hashMb, 1);
+    }
+
+    /**
+     * @param hashMb Tamanho da tabela de transposição em MB.
+     * @param threads Número de threads de busca (Lazy SMP); 1 desliga as threads auxiliares.
+     */
+    public AIController(int hashMb, int threads) {
+        this.tt = new TranspositionTable(hashMb);
+        setThreads(threads);
+    }
+
+    /**
+     * Redimensiona a tabela de transposição (o conteúdo atual é descartado).
+     *
+     * @param hashMb O novo tamanho em MB (arredondado para baixo até uma potência de dois).
+     */
+    public void setHashSize(int hashMb) {
+        this.tt = new TranspositionTable(hashMb);
+    }
+
+    /**
+     * Redimensiona o cache de avaliação (o conteúdo atual é descartado).
+     *
+     * @param sizeMb O novo tamanho em MB (arredondado para baixo até uma potência de dois).
+     */
+    public void setEvalCacheSize(int sizeMb) {
+        this.evalCache = new EvalCache(sizeMb);
+    }
+
+    /**
+     * Define o livro de aberturas. Enquanto a posição estiver no livro, a IA joga um lance do
+     * livro sem buscar (exceto no nível Burro, que continua sorteando lances).
+     *
+     * @param book O livro, ou null para desligá-lo.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.openingBook = book;
+    }
+
+    /**
+     * Define as tabelas de finais de 3 e 4 peças. A busca usa o valor exato da tabela em vez
+     * de continuar buscando quando chega a uma posição coberta por ela.
+     *
+     * @param tablebase As tabelas, ou null para desligá-las.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Define o número de threads de busca. A thread que chama {@link #findBestMove} conta como
+     * uma; as demais ficam num pool de threads daemon que só trabalham durante a busca.
+     */
+    public void setThreads(int threads) {
+        threads = Math.max(1, threads);
+        if (helperPool != null) helperPool.shutdownNow();
+        workers = new SearchWorker[threads];
+        for (int i = 0; i < threads; i++) workers[i] = new SearchWorker(this);
+        helperPool = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread t = new Thread(r, "ai-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * @return Nós por thread e duração da última busca (null se ainda não houve busca ou se o
+     *         último lance veio do livro de aberturas).
+     */
+    public SearchStats getLastSearchStats() {
+        return lastStats;
+    }
+
+    /**
+     * Liga ou desliga a poda de lance nulo.
+     */
+    public void setNullMovePruning(boolean enabled) {
+        this.nullMovePruning = enabled;
+    }
+
+    /**
+     * Liga ou desliga a redução de lances tardios (LMR).
+     */
+    public void setLateMoveReductions(boolean enabled) {
+        this.lateMoveReductions = enabled;
+    }
+
+    /**
+     * Esvazia a tabela de transposição e o cache de avaliação (por exemplo, ao começar uma nova partida).
+     */
+    public void clearHash() {
+        tt.clear();
+        evalCache.clear();
+    }
+
+    // Lido pelos SearchWorkers a cada nó para interromper a busca.
+    boolean isTimeUp() {
+        return timeUp;
+    }
 
     /**
      * Inicia a busca pelo melhor movimento em uma thread separada para não bloquear a interface gráfica.
-     * Utiliza a abordagem de aprofundamento iterativo.
+     * Se houver um livro de aberturas e a posição estiver nele, o lance vem do livro.
+     * Senão, utiliza a abordagem de aprofundamento iterativo e, com mais de uma thread, Lazy SMP: as
+     * threads auxiliares buscam a mesma raiz (metade delas começando uma profundidade adiante)
+     * e só contribuem preenchendo a tabela de transposição compartilhada; o lance escolhido
+     * vem sempre da thread principal.
      *
      * @param game O estado atual do jogo.
      * @param timeLimitMillis O tempo máximo de busca em milissegundos.
@@ -81,7 +259,23 @@ public class AIController {
         new SwingWorker<AIMove, Void>() {
             @Override
             protected AIMove doInBackground() {
+                lastStats = null;
+                // Posição de livro: responde na hora, sem iniciar a busca.
+                OpeningBook book = openingBook;
+                if (book != null && difficultyIndex > 0) {
+                    int bookMove = book.probe(new Game(game));
+                    if (bookMove != Move.NONE) return toAIMove(bookMove);
+                }
+
                 timeUp = false;
+                long start = System.nanoTime();
+                TranspositionTable table = tt;
+                table.newSearch();
+                EvalCache cache = evalCache;
+                cache.resetCounters();
+                SearchWorker[] threads = workers;
+                Tablebase endgames = tablebase;
+                for (SearchWorker w : threads) w.newSearch(table, cache, endgames, nullMovePruning, lateMoveReductions);
                 // Thread separada que atua como um timer para a busca.
                 Thread timer = new Thread(() -> {
                     try {
@@ -91,20 +285,45 @@ public class AIController {
                 });
                 timer.start();
 
-                List<MoveScore> bestMovesList = new ArrayList<>();
-                List<AIMove> allMoves = collectAllLegalMovesForSide(game, game.whiteToMove(), true);
-                if (allMoves.isEmpty()) return null;
-                
-                // Aprofundamento Iterativo: busca em profundidade 1, depois 2, 3, etc., até o tempo esgotar.
-                // Isso garante que sempre tenhamos um resultado, mesmo que o tempo seja curto.
-                for (int depth = 1; depth < 100; depth++) {
-                    List<MoveScore> currentScoredMoves = searchAtDepth(game, depth, allMoves, game.whiteToMove());
-                    if (timeUp) break; // Interrompe se o tempo acabou.
-                    bestMovesList = currentScoredMoves; // Salva o resultado da última busca completa.
+                // A busca faz e desfaz lances numa cópia do jogo, sem tocar no jogo da interface.
+                Game searchGame = new Game(game);
+                MoveList allMoves = new MoveList();
+                searchGame.generateLegalMoves(allMoves);
+                if (allMoves.isEmpty()) {
+                    timer.interrupt();
+                    return null;
+                }
+                threads[0].orderRootMoves(searchGame, allMoves);
+                // Quantos lances precisam de pontuação exata para a escolha por dificuldade.
+                int multiPv = multiPvFor(difficultyIndex);
+
+                // Cada thread auxiliar recebe a sua própria cópia do jogo e da lista da raiz.
+                List<Future<?>> helpers = new ArrayList<>();
+                for (int i = 1; i < threads.length; i++) {
+                    SearchWorker helper = threads[i];
+                    Game helperGame = new Game(searchGame);
+                    MoveList helperMoves = new MoveList();
+                    for (int m = 0; m < allMoves.size(); m++) helperMoves.add(allMoves.get(m));
+                    int firstDepth = 1 + (i % 2);
+                    helpers.add(helperPool.submit(() -> helper.iterativeDeepening(helperGame, helperMoves, 1, firstDepth)));
                 }
-                
-                timer.interrupt(); // Para o timer, pois a busca foi concluída ou interrompida.
-                return selectMoveBasedOnDifficulty(bestMovesList, difficultyIndex);
+
+                List<MoveScore> bestMovesList = threads[0].iterativeDeepening(searchGame, allMoves, multiPv, 1);
+
+                // A thread principal terminou: as auxiliares param junto com ela.
+                timeUp = true;
+                timer.interrupt();
+                for (Future<?> f : helpers) {
+                    try { f.get(); }
+                    catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+                    catch (ExecutionException e) { e.printStackTrace(); }
+                }
+                long[] nodes = new long[threads.length];
+                for (int i = 0; i < threads.length; i++) nodes[i] = threads[i].nodes();
+                lastStats = new SearchStats(nodes, System.nanoTime() - start, cache.hits(), cache.misses());
+
+                int chosen = selectMoveBasedOnDifficulty(bestMovesList, difficultyIndex);
+                return chosen == Move.NONE ? null : toAIMove(chosen);
             }
 
             @Override
@@ -114,17 +333,30 @@ public class AIController {
             }
         }.execute();
     }
-    
+
+    /**
+     * Busca a posição atual até uma profundidade fixa, numa única thread, sem limite de tempo
+     * nem escolha por dificuldade. Usado pelos benchmarks (módulo bench) para medir a busca isoladamente.
+     *
+     * @return A avaliação da posição do ponto de vista de quem tem a vez.
+     */
+    int searchFixedDepth(Game game, int depth) {
+        timeUp = false;
+        tt.newSearch();
+        workers[0].newSearch(tt, evalCache, tablebase, nullMovePruning, lateMoveReductions);
+        return workers[0].searchFixedDepth(game, depth);
+    }
+
     /**
      * Seleciona um movimento da lista de melhores lances com base no nível de dificuldade.
      * Níveis mais baixos introduzem uma chance de erro, tornando a IA mais humana.
      *
      * @param scoredMoves Lista de movimentos ordenados pela pontuação.
      * @param difficultyIndex O nível de dificuldade.
-     * @return O movimento escolhido.
+     * @return O movimento escolhido (codificado), ou Move.NONE se a lista estiver vazia.
      */
-    private AIMove selectMoveBasedOnDifficulty(List<MoveScore> scoredMoves, int difficultyIndex) {
-        if (scoredMoves.isEmpty()) return null;
+    private int selectMoveBasedOnDifficulty(List<MoveScore> scoredMoves, int difficultyIndex) {
+        if (scoredMoves.isEmpty()) return Move.NONE;
 
         double r = Math.random(); // Fator de aleatoriedade para a seleção.
 
@@ -158,135 +390,89 @@ public class AIController {
     }
 
     /**
-     * Itera sobre todos os movimentos possíveis em uma dada profundidade, os pontua usando
-     * o minimax e os retorna ordenados.
-     * @return Lista de movimentos com suas pontuações, ordenada.
+     * Número de lances da raiz que precisam de pontuação exata para cada nível de dificuldade
+     * (os níveis intermediários às vezes jogam o 2º ou o 3º melhor lance).
      */
-    private List<MoveScore> searchAtDepth(Game game, int depth, List<AIMove> allMoves, boolean isMaximizingPlayer) {
-        List<MoveScore> scoredMoves = new ArrayList<>();
-
-        for (AIMove move : allMoves) {
-            Game tempGame = new Game(game);
-            tempGame.move(move.from, move.to, 'Q');
-            int score = minimax(tempGame, depth - 1, Integer.MIN_VALUE, Integer.MAX_VALUE, !isMaximizingPlayer);
-            if (timeUp) return scoredMoves; // Retorna imediatamente se o tempo acabar.
-            scoredMoves.add(new MoveScore(move, score));
-        }
-
-        // Ordena os movimentos. Ordem descendente para o maximizador (Brancas) e ascendente para o minimizador (Pretas).
-        if (isMaximizingPlayer) {
-            scoredMoves.sort(Comparator.comparingInt(MoveScore::score).reversed());
-        } else {
-            scoredMoves.sort(Comparator.comparingInt(MoveScore::score));
-        }
-        return scoredMoves;
-    }
-
-    /**
-     * Implementação recursiva do algoritmo Minimax com poda Alfa-Beta.
-     *
-     * @param depth Profundidade restante da busca.
-     * @param alpha Melhor valor para o maximizador encontrado até agora.
-     * @param beta Melhor valor para o minimizador encontrado até agora.
-     * @param isMaximizingPlayer True se o jogador atual for o maximizador.
-     * @return A avaliação da posição.
-     */
-    private int minimax(Game game, int depth, int alpha, int beta, boolean isMaximizingPlayer) {
-        if (timeUp) return 0;
-        if (depth == 0 || game.isGameOver()) {
-            return evaluateBoard(game, game.whiteToMove());
-        }
-
-        List<AIMove> allMoves = collectAllLegalMovesForSide(game, game.whiteToMove(), false);
-        if (allMoves.isEmpty()) {
-            return evaluateBoard(game, game.whiteToMove());
-        }
-
-        if (isMaximizingPlayer) {
-            int maxEval = Integer.MIN_VALUE;
-            for (AIMove move : allMoves) {
-                Game tempGame = new Game(game);
-                tempGame.move(move.from, move.to, 'Q');
-                int eval = minimax(tempGame, depth - 1, alpha, beta, false);
-                maxEval = Math.max(maxEval, eval);
-                alpha = Math.max(alpha, eval);
-                if (beta <= alpha) break; // Poda Alfa-Beta: corta ramos da árvore de busca que não influenciarão no resultado.
-            }
-            return maxEval;
-        } else {
-            int minEval = Integer.MAX_VALUE;
-            for (AIMove move : allMoves) {
-                Game tempGame = new Game(game);
-                tempGame.move(move.from, move.to, 'Q');
-                int eval = minimax(tempGame, depth - 1, alpha, beta, true);
-                minEval = Math.min(minEval, eval);
-                beta = Math.min(beta, eval);
-                if (beta <= alpha) break; // Poda Alfa-Beta.
-            }
-            return minEval;
-        }
+    private static int multiPvFor(int difficultyIndex) {
+        return switch (difficultyIndex) {
+            case 1 -> 3;
+            case 2, 3 -> 2;
+            default -> 1; // Burro sorteia qualquer lance; Expert só precisa do melhor.
+        };
     }
 
     /**
      * Avalia a posição do tabuleiro e retorna uma pontuação.
      * Pontuação positiva favorece as Brancas, negativa favorece as Pretas.
+     * Material e Piece-Square Tables vêm prontos do Board, que mantém os totais de meio-jogo e
+     * de final e a fase do jogo atualizados a cada lance (ver {@link model.board.PieceSquareTables});
+     * os dois totais são interpolados pela fase, sem saltos na transição para o final.
+     * A estrutura de peões vem da tabela de peões, recalculada só quando os peões mudam.
      */
-    private int evaluateBoard(Game game, boolean isWhiteToMove) {
-        int totalScore = 0;
+    int evaluateBoard(Game game, boolean isWhiteToMove) {
+        return evaluateBoard(game, isWhiteToMove, pawnHash);
+    }
+
+    int evaluateBoard(Game game, boolean isWhiteToMove, PawnHashTable pawns) {
         Board board = game.board();
-        
-        // Determina se o jogo está em sua fase final (endgame) para usar a PST correta para o rei.
-        boolean isEndGame = (board.getPieces(true).size() + board.getPieces(false).size()) <= 12;
+        int totalScore = board.taperedScore();
 
-        for (Piece p : board.getPieces(true)) totalScore += getPieceValue(p, isEndGame, game);
-        for (Piece p : board.getPieces(false)) totalScore -= getPieceValue(p, isEndGame, game);
+        // Estrutura de peões (dobrados, isolados, atrasados e passados) e passados com caminho livre.
+        int entry = pawns.probe(board);
+        int pawnEg = pawns.endgame(entry)
+                   + freePassers(board, pawns.passed(entry, true), true)
+                   - freePassers(board, pawns.passed(entry, false), false);
+        totalScore += PieceSquareTables.taper(pawns.middlegame(entry), pawnEg, board.phase());
+
+        // Bônus de mobilidade, a partir dos ataques de cada peça (sem verificar legalidade).
+        totalScore += mobility(board, true) - mobility(board, false);
         
         // Bônus de "tempo": um pequeno incentivo para o lado que tem a vez de jogar.
         totalScore += isWhiteToMove ? 10 : -10;
         
         return totalScore;
     }
-    
-    /**
-     * Calcula o valor de uma única peça.
-     * A avaliação é a soma de: valor material + bônus da PST + bônus de mobilidade.
-     */
-    private int getPieceValue(Piece p, boolean isEndGame, Game game) {
-        int value = 0;
-        String symbol = p.getSymbol();
-        int row = p.getPosition().getRow();
-        int col = p.getPosition().getColumn();
-        int tableIndex = p.isWhite() ? row * 8 + col : (7 - row) * 8 + col;
-
-        switch(symbol) {
-            case "P": value = 100 + PAWN_TABLE[tableIndex]; break;
-            case "N": value = 320 + KNIGHT_TABLE[tableIndex]; break;
-            case "B": value = 330 + BISHOP_TABLE[tableIndex]; break;
-            case "R": value = 500; break;
-            case "Q": value = 900; break;
-            case "K":
-                value = 20000 + (isEndGame ? KING_TABLE_ENDGAME[tableIndex] : KING_TABLE_MIDDLEGAME[tableIndex]);
-                break;
+
+    // Soma o bônus dos peões passados cuja casa da frente está vazia.
+    private static int freePassers(Board board, long passed, boolean white) {
+        int score = 0;
+        for (; passed != 0; passed &= passed - 1) {
+            int sq = Long.numberOfTrailingZeros(passed);
+            if ((board.occupied() & Bitboards.bit(sq + (white ? -8 : 8))) == 0) {
+                score += FREE_PASSER_EG[white ? 7 - Bitboards.row(sq) : Bitboards.row(sq)];
+            }
         }
-        
-        // Bônus de mobilidade: adiciona um pequeno valor para cada movimento legal que a peça tem.
-        value += game.legalMovesFrom(p.getPosition()).size();
-        
-        return value;
+        return score;
     }
 
     /**
-     * Coleta todos os movimentos legais para um determinado lado.
+     * Mobilidade de um lado: para cada cavalo, bispo, torre e dama, as casas atacadas que não
+     * têm peça própria nem são atacadas por peões inimigos, com peso por tipo de peça
+     * ({@link #MOBILITY_WEIGHT}). Usa só os bitboards de ataque, sem gerar lances.
      */
-    private List<AIMove> collectAllLegalMovesForSide(Game game, boolean isWhite, boolean shuffle) {
-        List<AIMove> moves = new ArrayList<>();
-        for (Piece p : game.board().getPieces(isWhite)) {
-            for (Position to : game.legalMovesFrom(p.getPosition())) {
-                moves.add(new AIMove(p.getPosition(), to));
-            }
+    private static int mobility(Board board, boolean white) {
+        long occupied = board.occupied();
+        long pawnAttacks = Bitboards.pawnAttacksOf(!white, board.pieces(!white, Piece.PAWN));
+        long area = ~board.occupancy(white) & ~pawnAttacks;
+
+        int score = 0;
+        for (long bb = board.pieces(white, Piece.KNIGHT); bb != 0; bb &= bb - 1) {
+            score += MOBILITY_WEIGHT[Piece.KNIGHT] * Long.bitCount(Bitboards.knightAttacks(Long.numberOfTrailingZeros(bb)) & area);
+        }
+        for (long bb = board.pieces(white, Piece.BISHOP); bb != 0; bb &= bb - 1) {
+            score += MOBILITY_WEIGHT[Piece.BISHOP] * Long.bitCount(Bitboards.bishopAttacks(Long.numberOfTrailingZeros(bb), occupied) & area);
         }
-        // Embaralhar os movimentos no nível raiz ajuda a IA a variar suas aberturas.
-        if (shuffle) Collections.shuffle(moves);
-        return moves;
+        for (long bb = board.pieces(white, Piece.ROOK); bb != 0; bb &= bb - 1) {
+            score += MOBILITY_WEIGHT[Piece.ROOK] * Long.bitCount(Bitboards.rookAttacks(Long.numberOfTrailingZeros(bb), occupied) & area);
+        }
+        for (long bb = board.pieces(white, Piece.QUEEN); bb != 0; bb &= bb - 1) {
+            score += MOBILITY_WEIGHT[Piece.QUEEN] * Long.bitCount(Bitboards.queenAttacks(Long.numberOfTrailingZeros(bb), occupied) & area);
+        }
+        return score;
+    }
+
+    // Converte um lance codificado no tipo entregue à interface.
+    private static AIMove toAIMove(int move) {
+        return new AIMove(Position.of(Move.from(move)), Position.of(Move.to(move)), Move.promotionChar(move));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,562 @@
+package controller;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import model.board.Bitboards;
+import model.pieces.Piece;
+
+/**
+ * Ferramenta de linha de comando que gera um livro de aberturas Polyglot (lido por
+ * {@link OpeningBook}) a partir de arquivos PGN.
+ * <p>
+ * Uso:
+ * <pre>
+ *   java controller.BookBuilder [opções] saida.bin partidas1.pgn [partidas2.pgn ...]
+ *     --plies N       meios-lances registrados por partida (padrão 24)
+ *     --min-games N   ocorrências mínimas de um lance para entrar no livro (padrão 3)
+ *     --threads N     threads que reproduzem as partidas (padrão: processadores - 1)
+ * </pre>
+ * Os arquivos são lidos em fluxo, sem carregar o corpus na memória: a thread principal separa
+ * as partidas (cabeçalho de resultado e texto dos lances) e as envia em lotes para as threads
+ * de trabalho. Cada thread interpreta os lances em SAN com os lances legais do {@link Game},
+ * reproduz a partida e conta vitórias, empates e derrotas de cada (posição, lance) numa tabela
+ * de hash de vetores primitivos compartilhada, dividida em fatias pela chave da posição (cada
+ * fatia com o seu próprio bloqueio), de modo que cada entrada existe uma única vez. No fim, as
+ * entradas com o mínimo de partidas são ordenadas por chave e gravadas no formato Polyglot
+ * com peso = 2 * vitórias + empates (do ponto de vista de quem joga o lance).
+ */
+public final class BookBuilder {
+
+    private static final int BATCH_SIZE = 256;
+
+    // Fatias da tabela de entradas, escolhidas pelos bits altos da chave da posição.
+    private static final int SHARD_BITS = 6;
+
+    // Resultado da partida do ponto de vista das Brancas.
+    private static final int WHITE_WINS = 0, DRAW = 1, BLACK_WINS = 2;
+
+    // Partida já separada do arquivo: resultado, FEN inicial (ou null) e texto dos lances.
+    private record PgnGame(int result, String fen, String moves) {}
+
+    private static final List<PgnGame> END = List.of();
+
+    private final int maxPlies;
+    private final int minGames;
+    private final int threads;
+
+    // Primeiro erro de uma thread de trabalho na construção atual (null se nenhuma falhou).
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public BookBuilder(int maxPlies, int minGames, int threads) {
+        this.maxPlies = maxPlies;
+        this.minGames = minGames;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Lê as partidas dos arquivos PGN e grava o livro.
+     *
+     * @return O número de entradas gravadas.
+     * @throws IOException Se um arquivo não puder ser lido ou o livro não puder ser gravado.
+     * @throws IllegalStateException Se uma thread de trabalho falhar (por exemplo, sem memória).
+     */
+    public long build(List<Path> pgnFiles, Path output) throws IOException {
+        failure.set(null);
+        BlockingQueue<List<PgnGame>> queue = new ArrayBlockingQueue<>(threads * 4);
+        EntryTable[] shards = new EntryTable[1 << SHARD_BITS];
+        for (int i = 0; i < shards.length; i++) shards[i] = new EntryTable(1 << 12);
+        Worker[] workers = new Worker[threads];
+        Thread[] workerThreads = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(queue, shards);
+            workerThreads[i] = new Thread(workers[i], "book-builder-" + i);
+            workerThreads[i].start();
+        }
+
+        long games = 0;
+        boolean finished = false;
+        try {
+            for (Path file : pgnFiles) games += readGames(file, queue);
+            for (int i = 0; i < threads; i++) put(queue, END);
+            finished = true;
+        } finally {
+            // Se a leitura parou no meio, as threads não recebem o fim da fila: são interrompidas.
+            if (!finished) for (Thread t : workerThreads) t.interrupt();
+            for (Thread t : workerThreads) {
+                try { t.join(); }
+                catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            }
+        }
+        if (failure.get() != null) throw workerFailure();
+
+        long skipped = 0;
+        for (Worker w : workers) skipped += w.skipped;
+        long pairs = 0;
+        for (EntryTable shard : shards) pairs += shard.size();
+        long written = write(shards, output);
+        System.out.printf("Partidas: %,d (%,d com lances não reconhecidos)%n", games, skipped);
+        System.out.printf("Entradas: %,d de %,d pares (posição, lance)%n", written, pairs);
+        return written;
+    }
+
+    // --- Leitura do PGN (thread principal) ---
+
+    private long readGames(Path file, BlockingQueue<List<PgnGame>> queue) throws IOException {
+        long games = 0;
+        List<PgnGame> batch = new ArrayList<>(BATCH_SIZE);
+        int result = -1;
+        String fen = null;
+        StringBuilder moves = new StringBuilder();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("[")) {
+                    // O primeiro cabeçalho depois dos lances (qualquer que seja) começa a próxima
+                    // partida: o resultado e a FEN da anterior não podem passar para ela.
+                    if (moves.length() > 0 || line.startsWith("[Event ")) {
+                        if (moves.length() > 0) games += flush(batch, queue, result, fen, moves);
+                        result = -1;
+                        fen = null;
+                    }
+                    if (line.startsWith("[Result ")) result = parseResult(tagValue(line));
+                    else if (line.startsWith("[FEN ")) fen = tagValue(line);
+                } else if (!line.isEmpty() && !line.startsWith("%")) {
+                    // A quebra de linha é mantida: ela encerra os comentários com ';' (ver tokenize).
+                    moves.append(line).append('\n');
+                }
+            }
+        }
+        if (moves.length() > 0) games += flush(batch, queue, result, fen, moves);
+        if (!batch.isEmpty()) put(queue, batch);
+        return games;
+    }
+
+    private int flush(List<PgnGame> batch, BlockingQueue<List<PgnGame>> queue,
+                             int result, String fen, StringBuilder moves) {
+        String text = moves.toString();
+        moves.setLength(0);
+        if (result < 0) return 0; // Partida sem resultado ("*"): não ensina nada.
+        batch.add(new PgnGame(result, fen, text));
+        if (batch.size() == BATCH_SIZE) {
+            put(queue, new ArrayList<>(batch));
+            batch.clear();
+        }
+        return 1;
+    }
+
+    // Espera espaço na fila; desiste se uma thread de trabalho falhou (a fila não andaria mais).
+    private void put(BlockingQueue<List<PgnGame>> queue, List<PgnGame> batch) {
+        try {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) throw workerFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Leitura interrompida", e);
+        }
+    }
+
+    private IllegalStateException workerFailure() {
+        return new IllegalStateException("Falha numa thread de trabalho", failure.get());
+    }
+
+    private static String tagValue(String line) {
+        int start = line.indexOf('"'), end = line.lastIndexOf('"');
+        return start >= 0 && end > start ? line.substring(start + 1, end) : "";
+    }
+
+    private static int parseResult(String value) {
+        return switch (value) {
+            case "1-0" -> WHITE_WINS;
+            case "0-1" -> BLACK_WINS;
+            case "1/2-1/2" -> DRAW;
+            default -> -1;
+        };
+    }
+
+    // --- Reprodução das partidas (threads de trabalho) ---
+
+    private final class Worker implements Runnable {
+        private final BlockingQueue<List<PgnGame>> queue;
+        private final EntryTable[] shards;
+        private final Game game = new Game();
+        private final MoveList legal = new MoveList();
+        private long skipped;
+
+        Worker(BlockingQueue<List<PgnGame>> queue, EntryTable[] shards) {
+            this.queue = queue;
+            this.shards = shards;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (List<PgnGame> batch = queue.take(); batch != END; batch = queue.take()) {
+                    for (PgnGame g : batch) {
+                        boolean ok;
+                        try { ok = replay(g); }
+                        catch (RuntimeException e) { ok = false; } // Posição inválida no arquivo.
+                        if (!ok) skipped++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                // Avisa a thread de leitura, que senão ficaria esperando a fila esvaziar.
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        /**
+         * Reproduz os primeiros lances da partida registrando cada (posição, lance).
+         *
+         * @return False se algum lance não pôde ser interpretado (os anteriores ficam registrados).
+         */
+        private boolean replay(PgnGame g) {
+            try {
+                if (g.fen() == null) game.newGame(); else game.loadFen(g.fen());
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            String[] tokens = tokenize(g.moves());
+            int plies = 0;
+            for (String token : tokens) {
+                if (plies >= maxPlies) break;
+                game.generateLegalMoves(legal);
+                int move = parseSan(token, game, legal);
+                if (move == Move.NONE) return false;
+                boolean white = game.whiteToMove();
+                int outcome = g.result() == DRAW ? 1 : (g.result() == WHITE_WINS) == white ? 2 : 0;
+                record(PolyglotKeys.key(game), PolyglotKeys.encodeMove(move), outcome);
+                game.makeMove(move);
+                plies++;
+            }
+            return true;
+        }
+
+        // Soma o resultado na fatia da chave; só as threads que caem na mesma fatia se esperam.
+        private void record(long key, int move, int outcome) {
+            EntryTable shard = shards[(int) (key >>> (64 - SHARD_BITS))];
+            synchronized (shard) {
+                shard.add(key, move, outcome);
+            }
+        }
+    }
+
+    // Número de lance ("12.", "12..."), sozinho ou colado ao lance seguinte.
+    private static final Pattern MOVE_NUMBER = Pattern.compile("^\\d+\\.+");
+
+    /**
+     * Separa o texto dos lances em lances SAN, descartando números de lance, comentários
+     * ("{...}" e ';' até o fim da linha), variantes, NAGs e o resultado.
+     */
+    static String[] tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        int depth = 0; // Nível de variante (entre parênteses).
+        int i = 0, n = text.length();
+        while (i < n) {
+            char c = text.charAt(i);
+            if (c == '{') {
+                // Dentro do comentário, ';' e parênteses não têm significado.
+                int end = text.indexOf('}', i);
+                i = end < 0 ? n : end + 1;
+            } else if (c == ';') {
+                int end = text.indexOf('\n', i);
+                i = end < 0 ? n : end + 1;
+            } else if (c == '(') {
+                depth++;
+                i++;
+            } else if (c == ')') {
+                depth = Math.max(0, depth - 1);
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else {
+                int start = i;
+                while (i < n && !Character.isWhitespace(text.charAt(i)) && "{}();".indexOf(text.charAt(i)) < 0) i++;
+                String token = text.substring(start, i);
+                if (depth > 0 || token.startsWith("$")) continue;
+                token = MOVE_NUMBER.matcher(token).replaceFirst("");
+                if (token.isEmpty() || isResult(token)) continue;
+                out.add(token);
+            }
+        }
+        return out.toArray(new String[0]);
+    }
+
+    private static boolean isResult(String token) {
+        return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+    }
+
+    /**
+     * Interpreta um lance em notação algébrica (SAN) comparando-o com os lances legais.
+     *
+     * @return O lance codificado, ou Move.NONE se nenhum (ou mais de um) lance legal corresponde.
+     */
+    static int parseSan(String san, Game game, MoveList legal) {
+        // Sufixos de xeque, mate e anotação não importam.
+        int len = san.length();
+        while (len > 0 && "+#!?".indexOf(san.charAt(len - 1)) >= 0) len--;
+        String s = san.substring(0, len);
+
+        if (s.equals("O-O") || s.equals("0-0") || s.equals("O-O-O") || s.equals("0-0-0")) {
+            boolean kingSide = s.length() == 3;
+            for (int i = 0; i < legal.size(); i++) {
+                int m = legal.get(i);
+                if (Move.isCastle(m) && (Bitboards.column(Move.to(m)) == 6) == kingSide) return m;
+            }
+            return Move.NONE;
+        }
+
+        int promotion = 0;
+        int eq = s.indexOf('=');
+        if (eq >= 0 && eq + 1 < s.length()) {
+            promotion = pieceType(s.charAt(eq + 1));
+            s = s.substring(0, eq);
+        } else if (s.length() > 2 && pieceType(s.charAt(s.length() - 1)) > 0
+                && Character.isDigit(s.charAt(s.length() - 2))) {
+            // Promoção sem '=' (por exemplo "e8Q").
+            promotion = pieceType(s.charAt(s.length() - 1));
+            s = s.substring(0, s.length() - 1);
+        }
+        if (s.length() < 2) return Move.NONE;
+
+        int type = Character.isUpperCase(s.charAt(0)) ? pieceType(s.charAt(0)) : Piece.PAWN;
+        if (type < 0) return Move.NONE;
+        int toCol = s.charAt(s.length() - 2) - 'a', toRank = s.charAt(s.length() - 1) - '1';
+        if (toCol < 0 || toCol > 7 || toRank < 0 || toRank > 7) return Move.NONE;
+        int to = Bitboards.square(7 - toRank, toCol);
+
+        // O que sobra entre a peça e o destino é a desambiguação (coluna e/ou fileira), sem o 'x'.
+        String middle = s.substring(type == Piece.PAWN ? 0 : 1, s.length() - 2).replace("x", "");
+        int fromCol = -1, fromRow = -1;
+        for (char c : middle.toCharArray()) {
+            if (c >= 'a' && c <= 'h') fromCol = c - 'a';
+            else if (c >= '1' && c <= '8') fromRow = 7 - (c - '1');
+            else return Move.NONE;
+        }
+
+        int found = Move.NONE;
+        for (int i = 0; i < legal.size(); i++) {
+            int m = legal.get(i);
+            int from = Move.from(m);
+            if (Move.to(m) != to || Move.promotion(m) != promotion) continue;
+            if (game.board().get(from).getType() != type) continue;
+            if (fromCol >= 0 && Bitboards.column(from) != fromCol) continue;
+            if (fromRow >= 0 && Bitboards.row(from) != fromRow) continue;
+            if (found != Move.NONE) return Move.NONE; // Ambíguo.
+            found = m;
+        }
+        return found;
+    }
+
+    // Tipo da peça pela letra SAN (maiúscula), ou -1.
+    private static int pieceType(char c) {
+        return switch (c) {
+            case 'N' -> Piece.KNIGHT;
+            case 'B' -> Piece.BISHOP;
+            case 'R' -> Piece.ROOK;
+            case 'Q' -> Piece.QUEEN;
+            case 'K' -> Piece.KING;
+            default -> -1;
+        };
+    }
+
+    // --- Gravação ---
+
+    private long write(EntryTable[] shards, Path output) throws IOException {
+        // Só as entradas que atingem o mínimo de partidas são copiadas para os vetores de saída.
+        int[][] selected = new int[shards.length][];
+        int n = 0;
+        for (int s = 0; s < shards.length; s++) {
+            selected[s] = shards[s].selectAtLeast(minGames);
+            n += selected[s].length;
+        }
+        long[] keys = new long[n];
+        int[] moves = new int[n];
+        long[] rawWeights = new long[n];
+        long maxWeight = 1;
+        for (int s = 0, j = 0; s < shards.length; s++) {
+            for (int i : selected[s]) {
+                keys[j] = shards[s].key(i);
+                moves[j] = shards[s].move(i);
+                rawWeights[j] = shards[s].rawWeight(i);
+                maxWeight = Math.max(maxWeight, rawWeights[j]);
+                j++;
+            }
+            selected[s] = null;
+        }
+        // O peso Polyglot tem 16 bits: escala os pesos para caberem.
+        int[] weights = new int[n];
+        for (int i = 0; i < n; i++) {
+            long w = rawWeights[i];
+            weights[i] = (int) Math.max(1, maxWeight > 0xFFFF ? w * 0xFFFF / maxWeight : w);
+        }
+        // Ordena por chave (sem sinal, como o leitor), na mesma posição por peso decrescente e,
+        // com pesos iguais, pelo lance, para que o arquivo não dependa da ordem das threads.
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        mergeSort(order, new int[n], 0, n, (a, b) -> {
+            int c = Long.compareUnsigned(keys[a], keys[b]);
+            if (c == 0) c = Integer.compare(weights[b], weights[a]);
+            return c != 0 ? c : Integer.compare(moves[a], moves[b]);
+        });
+
+        try (OutputStream file = Files.newOutputStream(output);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            for (int i : order) {
+                out.writeLong(keys[i]);
+                out.writeShort(moves[i]);
+                out.writeShort(weights[i]);
+                out.writeInt(0);
+            }
+        }
+        return n;
+    }
+
+    // Ordenação de um vetor de índices sem criar um objeto por elemento.
+    private static void mergeSort(int[] a, int[] tmp, int from, int to, IntComparator cmp) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(a, tmp, from, mid, cmp);
+        mergeSort(a, tmp, mid, to, cmp);
+        if (cmp.compare(a[mid - 1], a[mid]) <= 0) return;
+        System.arraycopy(a, from, tmp, from, to - from);
+        for (int i = from, l = from, r = mid; i < to; i++) {
+            a[i] = r >= to || (l < mid && cmp.compare(tmp[l], tmp[r]) <= 0) ? tmp[l++] : tmp[r++];
+        }
+    }
+
+    private interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Tabela de hash com endereçamento aberto sobre vetores primitivos, de (chave da posição,
+     * lance Polyglot) para contagens de derrotas, empates e vitórias. Evita um objeto por
+     * entrada, o que importa com milhões de partidas.
+     */
+    static final class EntryTable {
+        private long[] keys;
+        private int[] moves;      // lance Polyglot + 1 (0 = vazio)
+        private int[][] counts;   // [0] derrotas, [1] empates, [2] vitórias
+        private int size, mask;
+
+        EntryTable(int capacity) {
+            allocate(Integer.highestOneBit(Math.max(16, capacity)));
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            moves = new int[capacity];
+            counts = new int[3][capacity];
+            mask = capacity - 1;
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @param outcome 0 = derrota, 1 = empate, 2 = vitória (de quem jogou o lance).
+         */
+        void add(long key, int move, int outcome) {
+            int i = slot(key, move);
+            if (moves[i] == 0) {
+                keys[i] = key;
+                moves[i] = move + 1;
+                if (++size * 2 > keys.length) {
+                    grow();
+                    i = slot(key, move);
+                }
+            }
+            counts[outcome][i]++;
+        }
+
+        // Posição da entrada (ou da casa vazia onde ela ficaria), por sondagem linear.
+        private int slot(long key, int move) {
+            long h = (key ^ (move * 0x9E3779B97F4A7C15L)) * 0xBF58476D1CE4E5B9L;
+            int i = (int) (h >>> 32) & mask;
+            while (moves[i] != 0 && (keys[i] != key || moves[i] != move + 1)) i = (i + 1) & mask;
+            return i;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldMoves = moves;
+            int[][] oldCounts = counts;
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldMoves[i] == 0) continue;
+                int j = slot(oldKeys[i], oldMoves[i] - 1);
+                keys[j] = oldKeys[i];
+                moves[j] = oldMoves[i];
+                for (int c = 0; c < 3; c++) counts[c][j] = oldCounts[c][i];
+                size++;
+            }
+        }
+
+        int[] selectAtLeast(int minGames) {
+            int n = 0;
+            int[] out = new int[size];
+            for (int i = 0; i < moves.length; i++) {
+                if (moves[i] != 0 && counts[0][i] + counts[1][i] + counts[2][i] >= minGames
+                        && rawWeight(i) > 0) {
+                    out[n++] = i;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+
+        long key(int i) {
+            return keys[i];
+        }
+
+        int move(int i) {
+            return moves[i] - 1;
+        }
+
+        long rawWeight(int i) {
+            return 2L * counts[2][i] + counts[1][i];
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int plies = 24, minGames = 3;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--plies" -> plies = Integer.parseInt(args[++i]);
+                case "--min-games" -> minGames = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> files.add(args[i]);
+            }
+        }
+        if (files.size() < 2) {
+            System.err.println("Uso: java controller.BookBuilder [--plies N] [--min-games N] [--threads N] saida.bin partidas.pgn...");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        List<Path> pgns = new ArrayList<>();
+        for (String f : files.subList(1, files.size())) pgns.add(Path.of(f));
+        new BookBuilder(plies, minGames, threads).build(pgns, Path.of(files.get(0)));
+        System.out.printf("Tempo:    %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+}
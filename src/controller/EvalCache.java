@@ -0,0 +1,82 @@
+package controller;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache da avaliação estática: guarda, pela chave de Zobrist da posição, o valor devolvido por
+ * {@link AIController#evaluateBoard}. A mesma posição é avaliada muitas vezes na busca
+ * (por outras ordens de lances e a cada iteração do aprofundamento), e cada avaliação fica
+ * mais cara conforme a avaliação ganha termos.
+ * <p>
+ * Cada entrada ocupa dois longs, (chave XOR dados) e dados, como na
+ * {@link TranspositionTable}: a tabela é compartilhada pelas threads da busca sem travas, e
+ * uma entrada escrita pela metade não reproduz a chave e é ignorada. Uma entrada nova sempre
+ * substitui a antiga.
+ */
+final class EvalCache {
+
+    // Devolvido por probe quando a posição não está no cache.
+    static final int MISS = Integer.MIN_VALUE;
+
+    // Marca os dados de uma entrada válida (uma avaliação 0 não pode virar dados 0).
+    private static final long VALID = 1L << 32;
+    private static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+
+    private final long[] table;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param sizeMb O tamanho máximo em MB (arredondado para baixo até uma potência de dois).
+     */
+    EvalCache(int sizeMb) {
+        long bytes = Math.max(1, sizeMb) * 1024L * 1024L;
+        int entries = Integer.highestOneBit((int) Math.min(bytes / BYTES_PER_ENTRY, 1 << 28));
+        this.table = new long[entries * 2];
+        this.mask = entries - 1;
+    }
+
+    /**
+     * @return A avaliação guardada para a posição (do ponto de vista das Brancas), ou {@link #MISS}.
+     */
+    int probe(long key) {
+        int i = index(key);
+        long data = table[i + 1];
+        if ((table[i] ^ data) == key && data != 0) {
+            hits.increment();
+            return (int) data;
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    void store(long key, int eval) {
+        int i = index(key);
+        long data = (eval & 0xFFFFFFFFL) | VALID;
+        table[i] = key ^ data;
+        table[i + 1] = data;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0L);
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    void resetCounters() {
+        hits.reset();
+        misses.reset();
+    }
+
+    private int index(long key) {
+        return ((int) (key ^ (key >>> 32)) & mask) * 2;
+    }
+}
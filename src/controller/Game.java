@@ -1,14 +1,17 @@
 package controller;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 import model.GameState;
+import model.board.Bitboards;
 import model.board.Board;
 import model.board.Position;
+import model.board.Zobrist;
 import model.pieces.*;
 
 /**
@@ -18,19 +21,34 @@ import model.pieces.*;
  */
 public final class Game {
 
+    // Bits dos direitos de roque (lado do rei / lado da dama de cada cor).
+    public static final int CASTLE_WHITE_KING = 1, CASTLE_WHITE_QUEEN = 2;
+    public static final int CASTLE_BLACK_KING = 4, CASTLE_BLACK_QUEEN = 8;
+
     // --- Variáveis de Estado do Jogo ---
     private Board board;                 // Representa o tabuleiro e a posição das peças.
     private boolean whiteToMove;         // Define de quem é a vez de jogar.
     private boolean gameOver;            // Sinaliza o fim da partida.
     private String gameEndMessage;       // Armazena a mensagem de final de jogo (ex: "Xeque-mate!").
     private int halfmoveClock;           // Contador para a regra de empate por 50 movimentos.
-    private Map<String, Integer> positionHistory; // Rastreia posições para a regra de empate por repetição tripla.
+    private Map<Long, Integer> positionHistory; // Rastreia posições (chaves de Zobrist) para a regra de empate por repetição tripla.
     private Position enPassantTarget;    // Armazena a casa vulnerável à captura "en passant".
+    private int castlingRights;          // Direitos de roque restantes (bits CASTLE_*).
     private final List<String> history;  // Mantém um registro de todos os movimentos em notação de texto.
     
     // Pilha para armazenar o estado do jogo a cada movimento, permitindo a funcionalidade de "desfazer".
     private final Stack<GameState> gameStateHistory;
 
+    // Pilha de registros de desfazer usada por makeMove/unmakeMove. Os registros são
+    // reaproveitados entre lances, de modo que a busca não aloca nada por nó.
+    private Undo[] undoStack = new Undo[64];
+    private int undoSize;
+
+    // Gerador de lances legais e contador que muda a cada alteração da posição, usado
+    // pelo gerador para calcular xeques e cravadas uma única vez por posição.
+    private final MoveGenerator moveGenerator = new MoveGenerator(this);
+    private int positionVersion;
+
     /**
      * Construtor padrão da classe Game. Inicializa os componentes e começa um novo jogo.
      */
@@ -53,6 +71,8 @@ public final class Game {
         this.halfmoveClock = other.halfmoveClock;
         this.positionHistory = new HashMap<>(other.positionHistory);
         this.enPassantTarget = other.enPassantTarget;
+        this.castlingRights = other.castlingRights;
+        this.positionVersion = other.positionVersion;
         this.history = new ArrayList<>(); // Históricos não são copiados para simulações.
         this.gameStateHistory = new Stack<>();
     }
@@ -64,8 +84,9 @@ public final class Game {
     public String getGameEndMessage() { return gameEndMessage; }
     public List<String> history() { return Collections.unmodifiableList(history); }
     public int getHalfmoveClock() { return halfmoveClock; }
-    public Map<String, Integer> getPositionHistory() { return positionHistory; }
+    public Map<Long, Integer> getPositionHistory() { return positionHistory; }
     public Position getEnPassantTarget() { return enPassantTarget; }
+    public int getCastlingRights() { return castlingRights; }
 
     /**
      * Configura o tabuleiro e as variáveis de estado para o início de uma nova partida.
@@ -77,6 +98,9 @@ public final class Game {
         this.gameOver = false;
         this.gameEndMessage = "";
         this.enPassantTarget = null;
+        this.castlingRights = CASTLE_WHITE_KING | CASTLE_WHITE_QUEEN | CASTLE_BLACK_KING | CASTLE_BLACK_QUEEN;
+        this.undoSize = 0;
+        this.positionVersion++;
         this.history.clear();
         this.halfmoveClock = 0;
         this.positionHistory.clear();
@@ -85,6 +109,120 @@ public final class Game {
         saveState(); // Salva o estado inicial para permitir desfazer desde o primeiro lance.
     }
 
+    /**
+     * Inicia uma partida a partir de uma posição em notação FEN completa
+     * (peças, vez, roques, en passant e contador de 50 lances; o número do lance é ignorado).
+     *
+     * @param fen A posição, por exemplo "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1".
+     * @throws IllegalArgumentException se a string não for uma FEN válida.
+     */
+    public void loadFen(String fen) {
+        String[] parts = fen.trim().split("\\s+");
+        if (parts.length < 2) throw new IllegalArgumentException("FEN inválida: " + fen);
+
+        Board newBoard = new Board();
+        String[] rows = parts[0].split("/", -1);
+        if (rows.length != 8) throw invalidFen("posição", parts[0]);
+        for (int r = 0; r < 8; r++) {
+            int c = 0;
+            for (char ch : rows[r].toCharArray()) {
+                if (ch >= '1' && ch <= '8') {
+                    c += ch - '0';
+                    if (c > 8) throw invalidFen("fileira " + (8 - r), rows[r]);
+                    continue;
+                }
+                if (c > 7) throw invalidFen("fileira " + (8 - r), rows[r]);
+                Piece piece = createPiece(ch, newBoard);
+                // Peões fora da fileira inicial já se moveram.
+                if (piece instanceof Pawn) piece.setMoved(piece.isWhite() ? r != 6 : r != 1);
+                newBoard.placePiece(piece, Position.of(r, c++));
+            }
+            if (c != 8) throw invalidFen("fileira " + (8 - r), rows[r]);
+        }
+        if (Long.bitCount(newBoard.pieces(true, Piece.KING)) != 1
+                || Long.bitCount(newBoard.pieces(false, Piece.KING)) != 1) {
+            throw new IllegalArgumentException("FEN inválida (é preciso um rei de cada cor): " + parts[0]);
+        }
+
+        if (!parts[1].equals("w") && !parts[1].equals("b")) throw invalidFen("vez", parts[1]);
+        boolean white = parts[1].equals("w");
+
+        int rights = 0;
+        String castling = parts.length > 2 ? parts[2] : "-";
+        if (!castling.matches("-|K?Q?k?q?")) throw invalidFen("roque", castling);
+        if (castling.indexOf('K') >= 0) rights |= CASTLE_WHITE_KING;
+        if (castling.indexOf('Q') >= 0) rights |= CASTLE_WHITE_QUEEN;
+        if (castling.indexOf('k') >= 0) rights |= CASTLE_BLACK_KING;
+        if (castling.indexOf('q') >= 0) rights |= CASTLE_BLACK_QUEEN;
+
+        // O alvo de en passant fica na 6ª fileira se as Brancas jogam, na 3ª se as Pretas jogam.
+        String ep = parts.length > 3 ? parts[3] : "-";
+        if (!ep.equals("-") && (ep.length() != 2 || ep.charAt(0) < 'a' || ep.charAt(0) > 'h'
+                || ep.charAt(1) != (white ? '6' : '3'))) {
+            throw invalidFen("en passant", ep);
+        }
+
+        int halfmove = 0;
+        if (parts.length > 4) {
+            try {
+                halfmove = Integer.parseInt(parts[4]);
+            } catch (NumberFormatException e) {
+                throw invalidFen("contador de meios-lances", parts[4]);
+            }
+            if (halfmove < 0) throw invalidFen("contador de meios-lances", parts[4]);
+        }
+
+        this.board = newBoard;
+        this.whiteToMove = white;
+        this.castlingRights = rights;
+        this.enPassantTarget = ep.equals("-") ? null : Position.of('8' - ep.charAt(1), ep.charAt(0) - 'a');
+        this.halfmoveClock = halfmove;
+        this.gameOver = false;
+        this.gameEndMessage = "";
+        this.undoSize = 0;
+        this.positionVersion++;
+        this.history.clear();
+        this.positionHistory.clear();
+        this.gameStateHistory.clear();
+        updatePositionHistory();
+        saveState();
+        checkGameEnd();
+    }
+
+    /**
+     * @return A posição atual em notação FEN completa (o número do lance é sempre 1).
+     */
+    public String toFen() {
+        StringBuilder sb = new StringBuilder(board.getFenPosition());
+        sb.append(whiteToMove ? " w " : " b ");
+        if (castlingRights == 0) sb.append('-');
+        if ((castlingRights & CASTLE_WHITE_KING) != 0) sb.append('K');
+        if ((castlingRights & CASTLE_WHITE_QUEEN) != 0) sb.append('Q');
+        if ((castlingRights & CASTLE_BLACK_KING) != 0) sb.append('k');
+        if ((castlingRights & CASTLE_BLACK_QUEEN) != 0) sb.append('q');
+        sb.append(' ').append(enPassantTarget == null ? "-" : enPassantTarget.toString());
+        sb.append(' ').append(halfmoveClock).append(" 1");
+        return sb.toString();
+    }
+
+    private static IllegalArgumentException invalidFen(String field, String value) {
+        return new IllegalArgumentException("FEN inválida (" + field + "): " + value);
+    }
+
+    // Cria a peça correspondente a uma letra FEN (maiúscula = brancas).
+    private static Piece createPiece(char ch, Board board) {
+        boolean white = Character.isUpperCase(ch);
+        return switch (Character.toUpperCase(ch)) {
+            case 'P' -> new Pawn(board, white);
+            case 'N' -> new Knight(board, white);
+            case 'B' -> new Bishop(board, white);
+            case 'R' -> new Rook(board, white);
+            case 'Q' -> new Queen(board, white);
+            case 'K' -> new King(board, white);
+            default -> throw new IllegalArgumentException("Peça inválida na FEN: " + ch);
+        };
+    }
+
     /**
      * Desfaz o último movimento, restaurando o estado anterior do jogo.
      */
@@ -113,6 +251,9 @@ public final class Game {
         this.halfmoveClock = state.getHalfmoveClock();
         this.positionHistory = new HashMap<>(state.getPositionHistory());
         this.enPassantTarget = state.getEnPassantTarget();
+        this.castlingRights = state.getCastlingRights();
+        this.undoSize = 0; // Os registros de desfazer apontam para peças do tabuleiro substituído.
+        this.positionVersion++;
     }
 
     /**
@@ -126,6 +267,22 @@ public final class Game {
         return legalMovesFromWithSpecials(from);
     }
 
+    /**
+     * Preenche a lista com todos os lances legais do lado que tem a vez, codificados em int
+     * (ver {@link Move}). Não aloca memória: a lista é reaproveitada pelo chamador.
+     */
+    public void generateLegalMoves(MoveList list) {
+        moveGenerator.generate(list);
+    }
+
+    /**
+     * Preenche a lista apenas com as capturas legais e as promoções a dama do lado que
+     * tem a vez (lances "ruidosos", examinados pela busca de quiescência da IA).
+     */
+    public void generateCaptures(MoveList list) {
+        moveGenerator.generateCaptures(list);
+    }
+
     /**
      * Verifica se um movimento de peão resulta em uma promoção.
      * @return True se o peão alcançou a última fileira.
@@ -157,18 +314,15 @@ public final class Game {
         boolean isPawnMove = piece instanceof Pawn;
         boolean isCapture = board.get(to) != null || (isPawnMove && to.equals(enPassantTarget));
 
-        // Executa o movimento no tabuleiro.
-        performMove(from, to, promotion, piece);
-        
-        // Passa a vez para o outro jogador.
-        whiteToMove = !whiteToMove;
-        
-        // Reseta os contadores de empate se um peão se moveu ou uma captura ocorreu.
+        // Executa o movimento no tabuleiro (também passa a vez e atualiza o contador de 50 lances).
+        makeMove(from, to, promotion);
+        // Lances confirmados são desfeitos pelo GameState, não pela pilha de makeMove.
+        undoStack[undoSize - 1].keepPromotedPiece();
+        undoSize = 0;
+
+        // Lances irreversíveis (peão ou captura) tornam impossível repetir as posições anteriores.
         if (isPawnMove || isCapture) {
-            halfmoveClock = 0;
             positionHistory.clear();
-        } else {
-            halfmoveClock++;
         }
 
         updatePositionHistory();
@@ -185,57 +339,286 @@ public final class Game {
     }
     
     /**
-     * Contém a lógica detalhada para executar diferentes tipos de movimentos (normal, roque, en passant, promoção).
+     * Executa um lance no tabuleiro sem validá-lo, guardando o necessário para desfazê-lo
+     * com {@link #unmakeMove()}. Converte o lance para a codificação int (ver {@link Move})
+     * e o executa com {@link #makeMove(int)}.
+     *
+     * @param from Posição de origem (deve conter uma peça do lado que joga).
+     * @param to Posição de destino.
+     * @param promotion Peça de promoção ('Q', 'R', 'B', 'N'), ou null para dama.
      */
-    private void performMove(Position from, Position to, Character promotion, Piece piece) {
-        // Lógica do Roque.
-        if (piece instanceof King && Math.abs(to.getColumn() - from.getColumn()) == 2) {
-            board.move(from, to);
-            int row = from.getRow();
-            Piece rook;
-            if (to.getColumn() == 6) { // Roque do lado do rei
-                rook = board.get(new Position(row, 7));
-                board.move(new Position(row, 7), new Position(row, 5)); 
-            } else { // Roque do lado da rainha
-                rook = board.get(new Position(row, 0));
-                board.move(new Position(row, 0), new Position(row, 3)); 
+    public void makeMove(Position from, Position to, Character promotion) {
+        makeMove(encode(from.index(), to.index(), promotion));
+    }
+
+    // Monta o lance codificado deduzindo os flags (roque, en passant, promoção...) do tabuleiro.
+    private int encode(int from, int to, Character promotion) {
+        Piece piece = board.get(from);
+        int flags = board.get(to) != null ? Move.CAPTURE : 0;
+        int promo = 0;
+        if (piece.getType() == Piece.KING && Math.abs(to - from) == 2) {
+            flags |= Move.CASTLE;
+        } else if (piece.getType() == Piece.PAWN) {
+            if (enPassantTarget != null && to == enPassantTarget.index() && flags == 0) {
+                flags |= Move.CAPTURE | Move.EN_PASSANT;
+            } else if (Math.abs(to - from) == 16) {
+                flags |= Move.DOUBLE_PUSH;
+            }
+            int row = Bitboards.row(to);
+            if (row == 0 || row == 7) {
+                char c = promotion != null ? Character.toUpperCase(promotion) : 'Q';
+                promo = switch (c) {
+                    case 'R' -> Piece.ROOK;
+                    case 'B' -> Piece.BISHOP;
+                    case 'N' -> Piece.KNIGHT;
+                    default -> Piece.QUEEN;
+                };
             }
-            if(rook != null) rook.setMoved(true);
         }
-        // Lógica do En Passant.
-        else if (piece instanceof Pawn && to.equals(enPassantTarget) && board.get(to) == null) {
+        return Move.encode(from, to, promo, flags);
+    }
+
+    /**
+     * Executa um lance codificado em int (ver {@link Move}) sem validá-lo, guardando o
+     * necessário para desfazê-lo com {@link #unmakeMove()}. O tipo do lance (roque, en passant,
+     * promoção, captura, avanço duplo) vem dos flags do próprio lance; passa a vez e atualiza
+     * direitos de roque, alvo de en passant e o contador de 50 lances.
+     * É o caminho usado pela IA e pelas verificações de legalidade: em vez de copiar o
+     * jogo inteiro para testar um lance, altera este tabuleiro e depois o restaura.
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move), to = Move.to(move);
+        Piece piece = board.get(from);
+        Undo u = pushUndo();
+        u.from = from;
+        u.to = to;
+        u.piece = piece;
+        u.pieceMoved = piece.hasMoved();
+        u.captured = null;
+        u.capturedAt = to;
+        u.promoted = false;
+        u.rook = null;
+        u.castlingRights = castlingRights;
+        u.enPassantTarget = enPassantTarget;
+        u.halfmoveClock = halfmoveClock;
+        u.key = zobristKey();
+
+        if (Move.isCastle(move)) {
             board.move(from, to);
-            int capturedPawnRow = to.getRow() + (piece.isWhite() ? 1 : -1);
-            board.remove(new Position(capturedPawnRow, to.getColumn()));
-        }
-        // Lógica da Promoção.
-        else if (piece instanceof Pawn && isPromotion(from, to)) {
-            char promoChar = (promotion != null) ? Character.toUpperCase(promotion) : 'Q';
-            Piece newPiece = switch (promoChar) {
-                case 'R' -> new Rook(board, piece.isWhite());
-                case 'B' -> new Bishop(board, piece.isWhite());
-                case 'N' -> new Knight(board, piece.isWhite());
-                default -> new Queen(board, piece.isWhite());
-            };
+            boolean kingSide = Bitboards.column(to) == 6;
+            int rookFrom = kingSide ? to + 1 : to - 2;
+            int rookTo = kingSide ? to - 1 : to + 1;
+            Piece rook = board.get(rookFrom);
+            if (rook != null) {
+                u.rook = rook;
+                u.rookMoved = rook.hasMoved();
+                board.move(rookFrom, rookTo);
+                rook.setMoved(true);
+            }
+        } else if (Move.isEnPassant(move)) {
+            board.move(from, to);
+            // O peão capturado está atrás da casa de destino.
+            u.capturedAt = piece.isWhite() ? to + 8 : to - 8;
+            u.captured = board.remove(u.capturedAt);
+        } else if (Move.promotion(move) != 0) {
+            if (Move.isCapture(move)) u.captured = board.remove(to);
+            u.promoted = true;
             board.remove(from);
-            board.placePiece(newPiece, to);
-        }
-        // Movimento normal.
-        else {
+            board.placePiece(u.promotionPiece(board, piece.isWhite(), Move.promotion(move)), to);
+        } else {
+            if (Move.isCapture(move)) u.captured = board.remove(to);
             board.move(from, to);
         }
 
         // Define o alvo para 'en passant' se um peão avançou duas casas.
-        if (piece instanceof Pawn && Math.abs(from.getRow() - to.getRow()) == 2) {
-            enPassantTarget = new Position((from.getRow() + to.getRow()) / 2, from.getColumn());
+        enPassantTarget = Move.isDoublePush(move) ? Position.of((from + to) >> 1) : null;
+
+        // Mover o rei ou a torre (ou capturar uma torre na casa inicial) remove direitos de roque.
+        castlingRights &= ~(CASTLING_MASK[from] | CASTLING_MASK[to]);
+
+        // Marca que a peça se moveu (avanço duplo do peão usa esta informação).
+        piece.setMoved(true);
+
+        // Reseta o contador de 50 lances se um peão se moveu ou uma captura ocorreu.
+        halfmoveClock = (piece.getType() == Piece.PAWN || u.captured != null) ? 0 : halfmoveClock + 1;
+        whiteToMove = !whiteToMove;
+        positionVersion++;
+    }
+
+    /**
+     * Passa a vez sem mover nenhuma peça ("lance nulo"), usado pela poda de lance nulo da IA.
+     * Apaga o alvo de en passant e zera o contador de 50 lances, de modo que nenhuma
+     * repetição seja detectada através do lance nulo. Desfeito com {@link #unmakeMove()}.
+     */
+    public void makeNullMove() {
+        Undo u = pushUndo();
+        u.piece = null; // Marca o registro como lance nulo.
+        u.castlingRights = castlingRights;
+        u.enPassantTarget = enPassantTarget;
+        u.halfmoveClock = halfmoveClock;
+        u.key = zobristKey();
+        enPassantTarget = null;
+        halfmoveClock = 0;
+        whiteToMove = !whiteToMove;
+        positionVersion++;
+    }
+
+    /**
+     * Desfaz o último lance feito com {@link #makeMove} (ou {@link #makeNullMove}), restaurando
+     * o tabuleiro e todo o estado (vez, roque, en passant, contador de 50 lances) exatamente como antes.
+     */
+    public void unmakeMove() {
+        Undo u = undoStack[--undoSize];
+        whiteToMove = !whiteToMove;
+        if (u.piece == null) {
+            enPassantTarget = u.enPassantTarget;
+            halfmoveClock = u.halfmoveClock;
+            positionVersion++;
+            return;
+        }
+
+        if (u.promoted) {
+            board.remove(u.to);
+            board.placePiece(u.piece, u.from);
         } else {
-            enPassantTarget = null;
+            board.move(u.to, u.from);
         }
+        if (u.captured != null) {
+            board.placePiece(u.captured, u.capturedAt);
+        }
+        if (u.rook != null) {
+            boolean kingSide = Bitboards.column(u.to) == 6;
+            board.move(kingSide ? u.to - 1 : u.to + 1, kingSide ? u.to + 1 : u.to - 2);
+            u.rook.setMoved(u.rookMoved);
+        }
+        u.piece.setMoved(u.pieceMoved);
 
-        // >>>>> CORREÇÃO AQUI <<<<<
-        // Marca que a peça se moveu. Isso é importante para o roque,
-        // avanço duplo do peão e qualquer outra regra futura.
-        piece.setMoved(true);
+        castlingRights = u.castlingRights;
+        enPassantTarget = u.enPassantTarget;
+        halfmoveClock = u.halfmoveClock;
+        positionVersion++;
+    }
+
+    /**
+     * Calcula a chave de Zobrist da posição atual: a chave das peças, mantida de forma
+     * incremental pelo Board, combinada com a vez, os direitos de roque e o en passant.
+     * A coluna de en passant só entra na chave quando um peão do lado que joga pode de
+     * fato capturar, para que posições idênticas tenham a mesma chave (regra de repetição).
+     *
+     * @return A chave de 64 bits da posição.
+     */
+    public long zobristKey() {
+        long key = board.zobristKey() ^ Zobrist.castling(castlingRights);
+        if (!whiteToMove) key ^= Zobrist.blackToMove();
+        if (canCaptureEnPassant()) key ^= Zobrist.enPassant(enPassantTarget.getColumn());
+        return key;
+    }
+
+    /**
+     * O alvo de en passant é marcado depois de todo avanço duplo de peão; esta verificação diz
+     * se a captura é de fato possível, isto é, se há um peão do lado que joga atacando a casa.
+     *
+     * @return True se o lado que joga pode capturar en passant.
+     */
+    public boolean canCaptureEnPassant() {
+        return enPassantTarget != null
+                && (Bitboards.pawnAttacks(!whiteToMove, enPassantTarget.index()) & board.pieces(whiteToMove, Piece.PAWN)) != 0;
+    }
+
+    /**
+     * Verifica se a posição atual repete uma posição anterior: seja uma da linha de lances
+     * feita com {@link #makeMove} (busca da IA), seja uma da partida. Só são consultadas
+     * posições desde o último lance irreversível (peão ou captura), e apenas com o mesmo
+     * lado a jogar. A busca trata uma única repetição como empate.
+     *
+     * @return True se a posição já ocorreu antes.
+     */
+    public boolean isRepetition() {
+        if (halfmoveClock < 4) return false; // São necessários ao menos 4 meios-lances para repetir.
+        long key = zobristKey();
+        int oldest = Math.max(0, undoSize - halfmoveClock);
+        for (int i = undoSize - 4; i >= oldest; i -= 2) {
+            if (undoStack[i].key == key) return true;
+        }
+        // Se a linha de busca ainda não passou por um lance irreversível, vale o histórico da partida.
+        return halfmoveClock >= undoSize && positionHistory.containsKey(key);
+    }
+
+    // Versão da posição atual; muda a cada lance feito ou desfeito.
+    int positionVersion() {
+        return positionVersion;
+    }
+
+    // Direitos de roque perdidos quando um lance sai de (ou chega a) uma casa inicial de rei/torre.
+    private static final int[] CASTLING_MASK = new int[64];
+    static {
+        CASTLING_MASK[Bitboards.square(7, 4)] = CASTLE_WHITE_KING | CASTLE_WHITE_QUEEN;
+        CASTLING_MASK[Bitboards.square(7, 7)] = CASTLE_WHITE_KING;
+        CASTLING_MASK[Bitboards.square(7, 0)] = CASTLE_WHITE_QUEEN;
+        CASTLING_MASK[Bitboards.square(0, 4)] = CASTLE_BLACK_KING | CASTLE_BLACK_QUEEN;
+        CASTLING_MASK[Bitboards.square(0, 7)] = CASTLE_BLACK_KING;
+        CASTLING_MASK[Bitboards.square(0, 0)] = CASTLE_BLACK_QUEEN;
+    }
+
+    // Reserva (ou reaproveita) o próximo registro da pilha de desfazer.
+    private Undo pushUndo() {
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoSize * 2);
+        }
+        Undo u = undoStack[undoSize];
+        if (u == null) {
+            u = new Undo();
+            undoStack[undoSize] = u;
+        }
+        undoSize++;
+        return u;
+    }
+
+    /**
+     * Registro compacto com tudo o que um lance altera e que não pode ser deduzido
+     * do próprio lance: peça capturada, direitos de roque, alvo de en passant e
+     * contador de 50 lances (mais os marcadores "já se moveu" das peças envolvidas).
+     * Guarda também a chave da posição anterior, usada para detectar repetições na busca.
+     */
+    private static final class Undo {
+        int from, to, capturedAt;
+        Piece piece, captured, rook;
+        boolean pieceMoved, rookMoved, promoted;
+        int castlingRights;
+        Position enPassantTarget;
+        int halfmoveClock;
+        long key; // Chave de Zobrist da posição antes do lance.
+
+        // Peças de promoção deste nível da pilha, por cor e tipo, criadas uma vez e reaproveitadas:
+        // a peça promovida sai do tabuleiro quando o lance é desfeito.
+        private final Piece[] promotionPieces = new Piece[10];
+        private Board promotionBoard;
+
+        Piece promotionPiece(Board board, boolean white, int type) {
+            if (promotionBoard != board) {
+                Arrays.fill(promotionPieces, null);
+                promotionBoard = board;
+            }
+            int index = (white ? 0 : 5) + type;
+            Piece p = promotionPieces[index];
+            if (p == null) {
+                p = switch (type) {
+                    case Piece.ROOK -> new Rook(board, white);
+                    case Piece.BISHOP -> new Bishop(board, white);
+                    case Piece.KNIGHT -> new Knight(board, white);
+                    default -> new Queen(board, white);
+                };
+                promotionPieces[index] = p;
+            }
+            p.setMoved(true);
+            return p;
+        }
+
+        // O lance foi confirmado na partida: a peça promovida fica no tabuleiro e não pode
+        // ser reaproveitada por outro lance.
+        void keepPromotedPiece() {
+            if (promoted) Arrays.fill(promotionPieces, null);
+        }
     }
 
     /**
@@ -244,8 +627,8 @@ public final class Game {
      * @return True se o rei desse lado estiver sob ataque.
      */
     public boolean inCheck(boolean whiteSide) {
-        Position kingPos = findKing(whiteSide);
-        return kingPos != null && isSquareAttacked(kingPos, !whiteSide);
+        int kingSq = board.kingSquare(whiteSide);
+        return kingSq >= 0 && board.isAttacked(kingSq, !whiteSide);
     }
     
     /**
@@ -276,7 +659,7 @@ public final class Game {
             return;
         }
         // Regra de repetição tripla
-        if (positionHistory.getOrDefault(board.getFenPosition(), 0) >= 3) {
+        if (positionHistory.getOrDefault(zobristKey(), 0) >= 3) {
             gameOver = true;
             gameEndMessage = "Empate por repetição tripla.";
             return;
@@ -293,123 +676,47 @@ public final class Game {
      * (Ex: Rei vs Rei; Rei vs Rei e Bispo; Rei vs Rei e Cavalo).
      */
     private boolean isInsufficientMaterial() {
-        List<Piece> whitePieces = board.getPieces(true);
-        List<Piece> blackPieces = board.getPieces(false);
-        if (whitePieces.size() <= 2 && blackPieces.size() <= 2) {
-            if (whitePieces.size() == 1 && blackPieces.size() == 1) return true; // Rei vs Rei
-            if (whitePieces.size() == 2 && blackPieces.size() == 1) { // Rei e peça menor vs Rei
-                Piece p = whitePieces.stream().filter(pc -> !(pc instanceof King)).findFirst().orElse(null);
-                return p instanceof Bishop || p instanceof Knight;
-            }
-            if (whitePieces.size() == 1 && blackPieces.size() == 2) { // Rei vs Rei e peça menor
-                 Piece p = blackPieces.stream().filter(pc -> !(pc instanceof King)).findFirst().orElse(null);
-                return p instanceof Bishop || p instanceof Knight;
-            }
+        int total = board.pieceCount(true) + board.pieceCount(false);
+        if (total == 2) return true; // Rei vs Rei
+        if (total == 3) { // Rei e peça menor vs Rei (de qualquer cor)
+            long minors = board.pieces(true, Piece.KNIGHT) | board.pieces(true, Piece.BISHOP)
+                        | board.pieces(false, Piece.KNIGHT) | board.pieces(false, Piece.BISHOP);
+            return minors != 0;
         }
         return false;
     }
 
     /**
-     * Coleta os movimentos "pseudo-legais" de uma peça e depois os filtra, removendo
-     * aqueles que deixariam o próprio rei em xeque. Também adiciona movimentos especiais como roque e en passant.
+     * Obtém do gerador de lances (máscaras de xeque e cravada) os destinos legais de uma peça,
+     * já incluindo os movimentos especiais como roque e en passant.
      */
     private List<Position> legalMovesFromWithSpecials(Position from) {
         Piece p = board.get(from);
         if (p == null || p.isWhite() != whiteToMove) return Collections.emptyList();
 
-        // Começa com os movimentos básicos da peça.
-        List<Position> moves = new ArrayList<>(p.getPossibleMoves());
-
-        // Adiciona a captura en passant, se aplicável.
-        if (p instanceof Pawn && enPassantTarget != null) {
-            List<Position> attacks = p.getAttacks();
-            if (attacks.contains(enPassantTarget)) {
-                moves.add(enPassantTarget);
-            }
-        }
-
-        // Adiciona os movimentos de roque, se aplicável.
-        if (p instanceof King && !p.hasMoved() && !inCheck(p.isWhite())) {
-            if (canCastle(p.isWhite(), true)) moves.add(new Position(from.getRow(), 6));
-            if (canCastle(p.isWhite(), false)) moves.add(new Position(from.getRow(), 2));
+        long targets = moveGenerator.legalTargets(from.index());
+        List<Position> moves = new ArrayList<>(Long.bitCount(targets));
+        for (; targets != 0; targets &= targets - 1) {
+            int sq = Long.numberOfTrailingZeros(targets);
+            moves.add(Position.of(sq));
         }
-
-        // Filtro final: remove qualquer movimento que deixe o rei em xeque.
-        moves.removeIf(to -> leavesKingInCheck(from, to));
         return moves;
     }
-    
-    /**
-     * Verifica se o roque é possível para um determinado lado.
-     * Checa se o rei e a torre não se moveram, se o caminho está livre e se não passa por xeque.
-     */
-    private boolean canCastle(boolean isWhite, boolean kingSide) {
-        int row = isWhite ? 7 : 0;
-        int rookCol = kingSide ? 7 : 0;
-        Piece rook = board.get(new Position(row, rookCol));
-
-        if (!(rook instanceof Rook) || rook.hasMoved()) return false;
-        
-        // Verifica se as casas entre o rei e a torre estão vazias.
-        int[] path = kingSide ? new int[]{5, 6} : new int[]{1, 2, 3};
-        for (int col : path) {
-            if (board.get(new Position(row, col)) != null) return false;
-        }
-
-        // Verifica se as casas pelas quais o rei passa não estão sob ataque.
-        int[] checkPath = kingSide ? new int[]{4, 5, 6} : new int[]{2, 3, 4};
-        for (int col : checkPath) {
-            if (isSquareAttacked(new Position(row, col), !isWhite)) return false;
-        }
-
-        return true;
-    }
 
-    /**
-     * Simula um movimento em uma cópia do tabuleiro para verificar se ele resultaria
-     * em o próprio rei ficar em xeque.
-     */
-    private boolean leavesKingInCheck(Position from, Position to) {
-        Game tempGame = new Game(this);
-        Piece p = tempGame.board.get(from);
-        tempGame.performMove(from, to, 'Q', p); // 'Q' para promoção padrão na simulação.
-        return tempGame.inCheck(p.isWhite());
-    }
-
-    /**
-     * Verifica se uma determinada casa está sendo atacada pelo oponente.
-     */
-    private boolean isSquareAttacked(Position sq, boolean byWhite) {
-        for (Piece p : board.getPieces(byWhite)) {
-            if (p.getAttacks().contains(sq)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    
-    // Encontra a posição do rei de uma determinada cor.
+    // Encontra a posição do rei de uma determinada cor (mantida em cache pelo Board).
     public Position findKing(boolean whiteSide) {
-        return board.getPieces(whiteSide).stream()
-                .filter(p -> p instanceof King)
-                .map(Piece::getPosition)
-                .findFirst().orElse(null);
+        int sq = board.kingSquare(whiteSide);
+        return sq < 0 ? null : Position.of(sq);
     }
     
-    // Verifica se um lado tem pelo menos um movimento legal.
+    // Verifica se um lado tem pelo menos um movimento legal (só o lado que tem a vez pode ter).
     private boolean hasAnyLegalMove(boolean forWhiteSide) {
-        for (Piece p : board.getPieces(forWhiteSide)) {
-            if (!legalMovesFromWithSpecials(p.getPosition()).isEmpty()) {
-                return true;
-            }
-        }
-        return false;
+        return forWhiteSide == whiteToMove && moveGenerator.hasAnyLegalMove();
     }
 
     // Atualiza o histórico de posições para a regra de repetição tripla.
     private void updatePositionHistory() {
-        String fen = board.getFenPosition();
-        positionHistory.put(fen, positionHistory.getOrDefault(fen, 0) + 1);
+        positionHistory.merge(zobristKey(), 1, Integer::sum);
     }
 
     /**
@@ -418,25 +725,25 @@ public final class Game {
     private void setupPieces() {
         board.clear();
         // Peças Brancas
-        board.placePiece(new Rook(board, true), new Position(7, 0));
-        board.placePiece(new Knight(board, true), new Position(7, 1));
-        board.placePiece(new Bishop(board, true), new Position(7, 2));
-        board.placePiece(new Queen(board, true), new Position(7, 3));
-        board.placePiece(new King(board, true), new Position(7, 4));
-        board.placePiece(new Bishop(board, true), new Position(7, 5));
-        board.placePiece(new Knight(board, true), new Position(7, 6));
-        board.placePiece(new Rook(board, true), new Position(7, 7));
-        for (int c = 0; c < 8; c++) board.placePiece(new Pawn(board, true), new Position(6, c));
+        board.placePiece(new Rook(board, true), Position.of(7, 0));
+        board.placePiece(new Knight(board, true), Position.of(7, 1));
+        board.placePiece(new Bishop(board, true), Position.of(7, 2));
+        board.placePiece(new Queen(board, true), Position.of(7, 3));
+        board.placePiece(new King(board, true), Position.of(7, 4));
+        board.placePiece(new Bishop(board, true), Position.of(7, 5));
+        board.placePiece(new Knight(board, true), Position.of(7, 6));
+        board.placePiece(new Rook(board, true), Position.of(7, 7));
+        for (int c = 0; c < 8; c++) board.placePiece(new Pawn(board, true), Position.of(6, c));
 
         // Peças Pretas
-        board.placePiece(new Rook(board, false), new Position(0, 0));
-        board.placePiece(new Knight(board, false), new Position(0, 1));
-        board.placePiece(new Bishop(board, false), new Position(0, 2));
-        board.placePiece(new Queen(board, false), new Position(0, 3));
-        board.placePiece(new King(board, false), new Position(0, 4));
-        board.placePiece(new Bishop(board, false), new Position(0, 5));
-        board.placePiece(new Knight(board, false), new Position(0, 6));
-        board.placePiece(new Rook(board, false), new Position(0, 7));
-        for (int c = 0; c < 8; c++) board.placePiece(new Pawn(board, false), new Position(1, c));
+        board.placePiece(new Rook(board, false), Position.of(0, 0));
+        board.placePiece(new Knight(board, false), Position.of(0, 1));
+        board.placePiece(new Bishop(board, false), Position.of(0, 2));
+        board.placePiece(new Queen(board, false), Position.of(0, 3));
+        board.placePiece(new King(board, false), Position.of(0, 4));
+        board.placePiece(new Bishop(board, false), Position.of(0, 5));
+        board.placePiece(new Knight(board, false), Position.of(0, 6));
+        board.placePiece(new Rook(board, false), Position.of(0, 7));
+        for (int c = 0; c < 8; c++) board.placePiece(new Pawn(board, false), Position.of(1, c));
     }
 }
\ No newline at end of file
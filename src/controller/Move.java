@@ -0,0 +1,90 @@
+package controller;
+
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Codificação compacta de um lance em um único int, usada pela geração de lances e pela busca
+ * da IA para evitar alocar objetos por lance.
+ * <pre>
+ *  bits  0-5   casa de origem (0-63)
+ *  bits  6-11  casa de destino (0-63)
+ *  bits 12-14  peça de promoção (Piece.KNIGHT ... Piece.QUEEN), 0 se não houver
+ *  bit  15     captura
+ *  bit  16     en passant
+ *  bit  17     roque
+ *  bit  18     avanço duplo de peão
+ * </pre>
+ * O valor 0 (a8 para a8) nunca é um lance válido e representa "nenhum lance".
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+    public static final int DOUBLE_PUSH = 1 << 18;
+
+    private Move() {}
+
+    /**
+     * Monta um lance a partir das casas, da peça de promoção (0 se não houver) e dos flags.
+     */
+    public static int encode(int from, int to, int promotion, int flags) {
+        return from | (to << 6) | (promotion << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return O tipo da peça de promoção (Piece.KNIGHT ... Piece.QUEEN) ou 0 se não for promoção.
+     */
+    public static int promotion(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    /**
+     * @return O caractere de promoção aceito por {@link Game#move} ('Q', 'R', 'B', 'N'), ou null.
+     */
+    public static Character promotionChar(int move) {
+        return switch (promotion(move)) {
+            case Piece.KNIGHT -> 'N';
+            case Piece.BISHOP -> 'B';
+            case Piece.ROOK -> 'R';
+            case Piece.QUEEN -> 'Q';
+            default -> null;
+        };
+    }
+
+    /**
+     * @return O lance em notação de coordenadas (ex: "e2e4", "e7e8q").
+     */
+    public static String toString(int move) {
+        String s = Position.of(from(move)).toString() + Position.of(to(move));
+        Character promo = promotionChar(move);
+        return promo == null ? s : s + Character.toLowerCase(promo);
+    }
+}
@@ -0,0 +1,281 @@
+package controller;
+
+import model.board.Bitboards;
+import model.board.Board;
+import model.board.Position;
+import model.pieces.Piece;
+
+/**
+ * Gerador de lances estritamente legais baseado em máscaras de xeque e de cravada.
+ * Para cada posição calcula uma única vez as peças que dão xeque e as peças cravadas
+ * do lado que joga; a partir disso cada peça já emite apenas lances legais, sem
+ * simular o lance e testar se o rei ficou em xeque:
+ * <ul>
+ *   <li>em xeque simples, os lances (exceto do rei) precisam capturar o atacante ou bloquear o raio;</li>
+ *   <li>em xeque duplo, apenas o rei pode se mover;</li>
+ *   <li>uma peça cravada só se move ao longo da linha entre o rei e a peça que a crava;</li>
+ *   <li>o rei não pode ir para casas atacadas (considerando os raios-X através dele mesmo);</li>
+ *   <li>en passant e roque recebem verificação própria.</li>
+ * </ul>
+ */
+final class MoveGenerator {
+
+    private final Game game;
+
+    // Estado calculado para a posição atual (válido enquanto a versão da posição não mudar).
+    private int preparedVersion = -1;
+    private boolean white;
+    private int kingSq;
+    private long own, enemy, occupied;
+    private long checkers, pinned, checkMask;
+
+    MoveGenerator(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * Calcula as casas de destino legais para a peça na casa informada.
+     * Retorna 0 se a casa estiver vazia ou a peça não for do lado que tem a vez.
+     *
+     * @param from A casa de origem (0-63).
+     * @return Bitboard com os destinos legais.
+     */
+    long legalTargets(int from) {
+        prepare();
+        long fromBit = Bitboards.bit(from);
+        if ((own & fromBit) == 0) return 0L;
+
+        int type = game.board().get(from).getType();
+        if (type == Piece.KING) return kingTargets();
+
+        // Em xeque duplo somente o rei pode se mover.
+        if (Long.bitCount(checkers) > 1) return 0L;
+
+        long targets;
+        long epTargets = 0L;
+        switch (type) {
+            case Piece.PAWN -> {
+                targets = pawnPushes(from) | (Bitboards.pawnAttacks(white, from) & enemy);
+                Position ep = game.getEnPassantTarget();
+                if (ep != null) {
+                    int epSq = ep.index();
+                    if ((Bitboards.pawnAttacks(white, from) & Bitboards.bit(epSq)) != 0 && enPassantIsLegal(from, epSq)) {
+                        epTargets = Bitboards.bit(epSq);
+                    }
+                }
+            }
+            case Piece.KNIGHT -> targets = Bitboards.knightAttacks(from) & ~own;
+            case Piece.BISHOP -> targets = Bitboards.bishopAttacks(from, occupied) & ~own;
+            case Piece.ROOK -> targets = Bitboards.rookAttacks(from, occupied) & ~own;
+            default -> targets = Bitboards.queenAttacks(from, occupied) & ~own;
+        }
+
+        targets &= checkMask;
+        if ((pinned & fromBit) != 0) {
+            targets &= Bitboards.line(kingSq, from);
+        }
+        // O en passant já foi validado por inteiro (xeque, cravada e raio horizontal).
+        return targets | epTargets;
+    }
+
+    /**
+     * Gera todos os lances legais do lado que tem a vez, já codificados (ver {@link Move}).
+     * Promoções geram os quatro lances (dama, torre, bispo e cavalo).
+     *
+     * @param list A lista a preencher; é esvaziada antes.
+     */
+    void generate(MoveList list) {
+        generate(list, false);
+    }
+
+    /**
+     * Gera apenas as capturas legais (incluindo en passant) e as promoções a dama,
+     * que são os lances examinados pela busca de quiescência.
+     */
+    void generateCaptures(MoveList list) {
+        generate(list, true);
+    }
+
+    private void generate(MoveList list, boolean capturesOnly) {
+        prepare();
+        list.clear();
+        Board board = game.board();
+        Position ep = game.getEnPassantTarget();
+        int epSq = ep == null ? -1 : ep.index();
+
+        for (long pieces = own; pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            long targets = legalTargets(from);
+            if (targets == 0) continue;
+            int type = board.get(from).getType();
+            if (capturesOnly) {
+                long captures = enemy;
+                if (type == Piece.PAWN) {
+                    captures |= Bitboards.RANK_8 | Bitboards.RANK_1;
+                    if (epSq >= 0) captures |= Bitboards.bit(epSq);
+                }
+                targets &= captures;
+            }
+
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                int flags = (enemy & Bitboards.bit(to)) != 0 ? Move.CAPTURE : 0;
+                if (type == Piece.PAWN) {
+                    if (to == epSq) {
+                        flags |= Move.CAPTURE | Move.EN_PASSANT;
+                    } else if (Math.abs(to - from) == 16) {
+                        flags |= Move.DOUBLE_PUSH;
+                    }
+                    int row = Bitboards.row(to);
+                    if (row == 0 || row == 7) {
+                        int lowest = capturesOnly ? Piece.QUEEN : Piece.KNIGHT;
+                        for (int promo = Piece.QUEEN; promo >= lowest; promo--) {
+                            list.add(Move.encode(from, to, promo, flags));
+                        }
+                        continue;
+                    }
+                } else if (type == Piece.KING && Math.abs(to - from) == 2) {
+                    flags |= Move.CASTLE;
+                }
+                list.add(Move.encode(from, to, 0, flags));
+            }
+        }
+    }
+
+    /**
+     * @return True se o lado que tem a vez possui pelo menos um lance legal.
+     */
+    boolean hasAnyLegalMove() {
+        prepare();
+        for (long bb = own; bb != 0; bb &= bb - 1) {
+            if (legalTargets(Long.numberOfTrailingZeros(bb)) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return O bitboard das peças inimigas que dão xeque no rei do lado que joga.
+     */
+    long checkers() {
+        prepare();
+        return checkers;
+    }
+
+    // Calcula xeques, cravadas e a máscara de evasão para a posição atual.
+    private void prepare() {
+        int version = game.positionVersion();
+        if (version == preparedVersion) return;
+        preparedVersion = version;
+
+        Board board = game.board();
+        white = game.whiteToMove();
+        own = board.occupancy(white);
+        enemy = board.occupancy(!white);
+        occupied = board.occupied();
+        long king = board.pieces(white, Piece.KING);
+        if (king == 0) {
+            // Posição sem rei (apenas em testes/edições): nenhuma restrição de xeque.
+            kingSq = -1;
+            checkers = pinned = 0L;
+            checkMask = ~0L;
+            return;
+        }
+        kingSq = Long.numberOfTrailingZeros(king);
+
+        checkers = board.attackersTo(kingSq, !white, occupied);
+        if (checkers == 0) {
+            checkMask = ~0L;
+        } else if (Long.bitCount(checkers) == 1) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            checkMask = checkers | Bitboards.between(kingSq, checker);
+        } else {
+            checkMask = 0L;
+        }
+
+        // Peças inimigas que atacariam o rei se não houvesse peças nossas no caminho.
+        long enemyQueens = board.pieces(!white, Piece.QUEEN);
+        long snipers = (Bitboards.rookAttacks(kingSq, enemy) & (board.pieces(!white, Piece.ROOK) | enemyQueens))
+                     | (Bitboards.bishopAttacks(kingSq, enemy) & (board.pieces(!white, Piece.BISHOP) | enemyQueens));
+        pinned = 0L;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Bitboards.between(kingSq, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+    }
+
+    // Avanços simples e duplos do peão (somente para casas vazias).
+    private long pawnPushes(int from) {
+        int step = white ? -8 : 8;
+        int one = from + step;
+        if (one < 0 || one > 63 || (occupied & Bitboards.bit(one)) != 0) return 0L;
+        long pushes = Bitboards.bit(one);
+        int startRow = white ? 6 : 1;
+        int two = one + step;
+        if (Bitboards.row(from) == startRow && (occupied & Bitboards.bit(two)) == 0) {
+            pushes |= Bitboards.bit(two);
+        }
+        return pushes;
+    }
+
+    /**
+     * O en passant remove duas peças da mesma fileira de uma vez, o que pode expor o rei
+     * a uma torre/dama horizontal; por isso é verificado refazendo os ataques ao rei
+     * com a ocupação resultante do lance.
+     */
+    private boolean enPassantIsLegal(int from, int epSq) {
+        if (kingSq < 0) return true;
+        int capturedSq = epSq + (white ? 8 : -8);
+        long capturedBit = Bitboards.bit(capturedSq);
+        long occAfter = (occupied ^ Bitboards.bit(from) ^ capturedBit) | Bitboards.bit(epSq);
+        return (game.board().attackersTo(kingSq, !white, occAfter) & ~capturedBit) == 0;
+    }
+
+    /**
+     * Destinos do rei: casas não atacadas pelo inimigo e roques. O mapa de ataques do Board
+     * é calculado com o rei no tabuleiro, então a casa "atrás" do rei no raio de uma
+     * deslizante que dá xeque também é excluída (ela ficaria atacada após o lance).
+     */
+    private long kingTargets() {
+        Board board = game.board();
+        long targets = Bitboards.kingAttacks(kingSq) & ~own & ~board.attackMap(!white);
+        long sliders = board.pieces(!white, Piece.BISHOP) | board.pieces(!white, Piece.ROOK)
+                     | board.pieces(!white, Piece.QUEEN);
+        for (long bb = checkers & sliders; bb != 0; bb &= bb - 1) {
+            int checker = Long.numberOfTrailingZeros(bb);
+            targets &= ~(Bitboards.line(kingSq, checker) ^ Bitboards.bit(checker));
+        }
+        if (checkers == 0) {
+            if (canCastle(true)) targets |= Bitboards.bit(kingSq + 2);
+            if (canCastle(false)) targets |= Bitboards.bit(kingSq - 2);
+        }
+        return targets;
+    }
+
+    /**
+     * Verifica se o roque é possível para o lado que joga.
+     * Exige o direito de roque, a torre na casa inicial, o caminho livre
+     * e que o rei não passe por casas atacadas.
+     */
+    private boolean canCastle(boolean kingSide) {
+        int right = white ? (kingSide ? Game.CASTLE_WHITE_KING : Game.CASTLE_WHITE_QUEEN)
+                          : (kingSide ? Game.CASTLE_BLACK_KING : Game.CASTLE_BLACK_QUEEN);
+        if ((game.getCastlingRights() & right) == 0) return false;
+
+        int row = white ? 7 : 0;
+        if (kingSq != Bitboards.square(row, 4)) return false;
+        int rookSq = Bitboards.square(row, kingSide ? 7 : 0);
+        if ((game.board().pieces(white, Piece.ROOK) & Bitboards.bit(rookSq)) == 0) return false;
+
+        // Casas entre o rei e a torre devem estar vazias.
+        if ((Bitboards.between(kingSq, rookSq) & occupied) != 0) return false;
+
+        // O rei não pode passar por casas atacadas (a casa de origem já foi verificada: sem xeque).
+        int step = kingSide ? 1 : -1;
+        for (int i = 1; i <= 2; i++) {
+            if (game.board().isAttacked(kingSq + i * step, !white)) return false;
+        }
+        return true;
+    }
+}
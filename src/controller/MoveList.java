@@ -0,0 +1,48 @@
+package controller;
+
+/**
+ * Lista de lances codificados (ver {@link Move}) em um vetor de int de tamanho fixo.
+ * A busca da IA mantém uma lista por nível (ply) e a reutiliza a cada nó com
+ * {@link #clear()}, de modo que gerar lances não aloca memória.
+ */
+public final class MoveList {
+
+    // Nenhuma posição legal tem mais de 218 lances.
+    private static final int CAPACITY = 256;
+
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Troca dois lances de lugar (usado para embaralhar e ordenar a lista).
+     */
+    public void swap(int i, int j) {
+        int tmp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = tmp;
+    }
+}
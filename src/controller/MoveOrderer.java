@@ -0,0 +1,114 @@
+package controller;
+
+import java.util.Arrays;
+import model.board.Board;
+import model.pieces.Piece;
+
+/**
+ * Ordenação de lances para a busca alfa-beta. Quanto antes o melhor lance é examinado,
+ * mais ramos são podados, então cada nó percorre os lances nesta ordem:
+ * <ol>
+ *   <li>o lance guardado na tabela de transposição (hash move);</li>
+ *   <li>capturas e promoções, por MVV-LVA (vítima mais valiosa, atacante menos valioso);</li>
+ *   <li>os dois lances "assassinos" (killers) do ply: lances quietos que causaram corte
+ *       em posições irmãs;</li>
+ *   <li>os demais lances quietos pela tabela de histórico (quantas vezes, e em que
+ *       profundidade, o mesmo lance de/para causou corte).</li>
+ * </ol>
+ * Os lances são pontuados uma vez por nó e escolhidos um a um ({@link #next}), de modo que
+ * um corte logo no começo evita ordenar o resto da lista.
+ */
+final class MoveOrderer {
+
+    private static final int HASH_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    // O histórico fica sempre abaixo dos killers; ao passar deste valor a tabela é reduzida à metade.
+    private static final int HISTORY_MAX = 1 << 26;
+
+    private final int[][] killers;
+    private final int[][] history = new int[2][64 * 64];
+    private final int[][] scores;
+
+    MoveOrderer(int maxPly) {
+        killers = new int[maxPly][2];
+        scores = new int[maxPly][256];
+    }
+
+    /**
+     * Esquece killers e histórico (início de uma nova busca).
+     */
+    void clear() {
+        for (int[] k : killers) Arrays.fill(k, Move.NONE);
+        Arrays.fill(history[0], 0);
+        Arrays.fill(history[1], 0);
+    }
+
+    /**
+     * Pontua os lances gerados para o nó do ply informado.
+     *
+     * @param hashMove O lance da tabela de transposição, ou Move.NONE.
+     */
+    void score(Game game, MoveList moves, int ply, int hashMove) {
+        Board board = game.board();
+        int side = game.whiteToMove() ? 0 : 1;
+        int[] s = scores[ply];
+        int killer1 = killers[ply][0], killer2 = killers[ply][1];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = Move.from(move), to = Move.to(move);
+            if (move == hashMove) {
+                s[i] = HASH_SCORE;
+            } else if (Move.isCapture(move) || Move.promotion(move) == Piece.QUEEN) {
+                int victim = Move.isEnPassant(move) ? Piece.PAWN
+                           : Move.isCapture(move) ? board.get(to).getType() : -1;
+                int promotion = Move.promotion(move) == Piece.QUEEN ? Piece.QUEEN : 0;
+                s[i] = CAPTURE_SCORE + (victim + 1 + promotion) * 8 - board.get(from).getType();
+            } else if (move == killer1) {
+                s[i] = KILLER_SCORE + 1;
+            } else if (move == killer2) {
+                s[i] = KILLER_SCORE;
+            } else {
+                // Promoções menores ficam no fim, abaixo de qualquer lance quieto.
+                s[i] = Move.promotion(move) != 0 ? -1 : history[side][from * 64 + to];
+            }
+        }
+    }
+
+    /**
+     * Traz para a posição index o lance de maior pontuação ainda não examinado (seleção parcial).
+     *
+     * @return O lance a examinar em seguida.
+     */
+    int next(MoveList moves, int ply, int index) {
+        int[] s = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (s[i] > s[best]) best = i;
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int tmp = s[index];
+            s[index] = s[best];
+            s[best] = tmp;
+        }
+        return moves.get(index);
+    }
+
+    /**
+     * Registra um lance quieto que causou corte beta: vira killer do ply e ganha pontos
+     * no histórico proporcionais ao quadrado da profundidade restante.
+     */
+    void onQuietCutoff(int move, boolean white, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] h = history[white ? 0 : 1];
+        int index = Move.from(move) * 64 + Move.to(move);
+        h[index] += depth * depth;
+        if (h[index] > HISTORY_MAX) {
+            for (int i = 0; i < h.length; i++) h[i] >>= 1;
+        }
+    }
+}
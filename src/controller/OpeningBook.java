@@ -0,0 +1,115 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Livro de aberturas no formato Polyglot (.bin). O arquivo é uma sequência de entradas de
+ * 16 bytes (big-endian), ordenadas pela chave da posição:
+ * <pre>
+ *   chave (8 bytes) | lance (2) | peso (2) | aprendizado (4, ignorado)
+ * </pre>
+ * O arquivo é mapeado em memória ({@link FileChannel#map}) e consultado por busca binária,
+ * sem ser carregado nem copiado para o heap. Entre os lances da posição, um é sorteado com
+ * probabilidade proporcional ao peso.
+ * <p>
+ * As chaves são calculadas por {@link PolyglotKeys}.
+ */
+public final class OpeningBook {
+
+    private static final int ENTRY_SIZE = 16;
+
+    // Lista de lances legais reaproveitada a cada consulta; uma por thread, pois o livro pode
+    // ser consultado fora da thread da interface.
+    private static final ThreadLocal<MoveList> LEGAL = ThreadLocal.withInitial(MoveList::new);
+
+    private final ByteBuffer entries;
+    private final int count;
+
+    private OpeningBook(ByteBuffer entries) {
+        this.entries = entries;
+        this.count = entries.capacity() / ENTRY_SIZE;
+    }
+
+    /**
+     * Abre o livro mapeando o arquivo em memória (somente leitura).
+     *
+     * @throws IOException Se o arquivo não puder ser lido.
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // O mapeamento continua válido depois que o canal é fechado.
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return O número de entradas do livro.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Sorteia um lance do livro para a posição atual, com probabilidade proporcional ao peso.
+     * Os lances do livro são conferidos com os lances legais da posição.
+     *
+     * @return O lance codificado (ver {@link Move}), ou Move.NONE se a posição não está no livro.
+     */
+    int probe(Game game) {
+        long key = PolyglotKeys.key(game);
+        int first = lowerBound(key);
+        if (first >= count || keyAt(first) != key) return Move.NONE;
+
+        MoveList legal = LEGAL.get();
+        game.generateLegalMoves(legal);
+        // Primeira passada: soma dos pesos; segunda: o lance sorteado.
+        long total = 0;
+        for (int i = first; i < count && keyAt(i) == key; i++) {
+            if (toLegalMove(moveAt(i), legal) != Move.NONE) total += weightAt(i);
+        }
+        if (total == 0) return Move.NONE;
+        long pick = ThreadLocalRandom.current().nextLong(total);
+        for (int i = first; i < count && keyAt(i) == key; i++) {
+            int move = toLegalMove(moveAt(i), legal);
+            if (move == Move.NONE) continue;
+            pick -= weightAt(i);
+            if (pick < 0) return move;
+        }
+        return Move.NONE;
+    }
+
+    // Índice da primeira entrada com chave >= key (chaves comparadas sem sinal, como no formato).
+    private int lowerBound(long key) {
+        int lo = 0, hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int toLegalMove(int bookMove, MoveList legal) {
+        for (int i = 0; i < legal.size(); i++) {
+            if (PolyglotKeys.encodeMove(legal.get(i)) == bookMove) return legal.get(i);
+        }
+        return Move.NONE;
+    }
+
+    private long keyAt(int index) {
+        return entries.getLong(index * ENTRY_SIZE);
+    }
+
+    private int moveAt(int index) {
+        return entries.getShort(index * ENTRY_SIZE + 8) & 0xFFFF;
+    }
+
+    private int weightAt(int index) {
+        return entries.getShort(index * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+}
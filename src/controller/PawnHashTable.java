@@ -0,0 +1,145 @@
+package controller;
+
+import model.board.Bitboards;
+import model.board.Board;
+import model.pieces.Piece;
+
+/**
+ * Avaliação da estrutura de peões com cache. Os termos de peões (dobrados, isolados,
+ * atrasados e passados) só dependem da posição dos peões, que muda poucas vezes ao longo
+ * da busca; por isso o resultado é guardado por chave de Zobrist só dos peões
+ * ({@link Board#pawnKey()}) e reaproveitado em quase todas as folhas.
+ * <p>
+ * Cada entrada guarda as pontuações de meio-jogo e de final (Brancas menos Pretas) e o
+ * bitboard dos peões passados de cada lado, para que a avaliação possa somar termos que
+ * dependem também das outras peças (como o caminho livre de um passado).
+ * <p>
+ * A tabela não é compartilhada: cada thread da busca tem a sua, então não há concorrência.
+ */
+final class PawnHashTable {
+
+    // Penalidades e bônus (meio-jogo, final).
+    private static final int DOUBLED_MG = -10, DOUBLED_EG = -20;
+    private static final int ISOLATED_MG = -10, ISOLATED_EG = -15;
+    private static final int BACKWARD_MG = -8, BACKWARD_EG = -10;
+    // Bônus do peão passado por fileira relativa (0 = fileira inicial do lado, 7 = promoção).
+    private static final int[] PASSED_MG = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_EG = {0, 10, 20, 35, 60, 90, 130, 0};
+
+    // Máscaras por [cor][casa] (0 = brancas, 1 = pretas) e por coluna.
+    private static final long[][] FORWARD_FILE = new long[2][64];   // casas à frente na mesma coluna
+    private static final long[][] PASSED_SPAN = new long[2][64];    // à frente, na coluna e nas vizinhas
+    private static final long[][] SUPPORT_SPAN = new long[2][64];   // colunas vizinhas, mesma fileira ou atrás
+    private static final long[] ADJACENT_FILES = new long[8];
+
+    static {
+        for (int col = 0; col < 8; col++) {
+            if (col > 0) ADJACENT_FILES[col] |= Bitboards.FILE_A << (col - 1);
+            if (col < 7) ADJACENT_FILES[col] |= Bitboards.FILE_A << (col + 1);
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            int row = Bitboards.row(sq), col = Bitboards.column(sq);
+            long file = Bitboards.FILE_A << col;
+            for (int r = 0; r < 8; r++) {
+                long rank = Bitboards.RANK_8 << (r * 8);
+                // As Brancas avançam para as linhas de índice menor.
+                int color = r < row ? 0 : r > row ? 1 : -1;
+                if (color >= 0) {
+                    FORWARD_FILE[color][sq] |= rank & file;
+                    PASSED_SPAN[color][sq] |= rank & (file | ADJACENT_FILES[col]);
+                }
+                if (r >= row) SUPPORT_SPAN[0][sq] |= rank & ADJACENT_FILES[col];
+                if (r <= row) SUPPORT_SPAN[1][sq] |= rank & ADJACENT_FILES[col];
+            }
+        }
+    }
+
+    private final long[] keys;
+    private final int[] middlegame, endgame;
+    private final long[] passedWhite, passedBlack;
+    private final int mask;
+
+    /**
+     * @param entries O número de entradas (arredondado para baixo até uma potência de dois).
+     */
+    PawnHashTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        keys = new long[size];
+        middlegame = new int[size];
+        endgame = new int[size];
+        passedWhite = new long[size];
+        passedBlack = new long[size];
+        mask = size - 1;
+        // Uma entrada vazia já é o resultado correto para a chave 0 (nenhum peão).
+    }
+
+    /**
+     * Garante que a estrutura de peões do tabuleiro está na tabela, calculando-a se preciso.
+     *
+     * @return O índice da entrada (ver {@link #middlegame}, {@link #endgame}, {@link #passed}).
+     */
+    int probe(Board board) {
+        long key = board.pawnKey();
+        int i = (int) (key ^ (key >>> 32)) & mask;
+        if (keys[i] != key) {
+            keys[i] = key;
+            evaluate(board, i);
+        }
+        return i;
+    }
+
+    int middlegame(int entry) {
+        return middlegame[entry];
+    }
+
+    int endgame(int entry) {
+        return endgame[entry];
+    }
+
+    long passed(int entry, boolean white) {
+        return white ? passedWhite[entry] : passedBlack[entry];
+    }
+
+    private void evaluate(Board board, int entry) {
+        long whitePawns = board.pieces(true, Piece.PAWN);
+        long blackPawns = board.pieces(false, Piece.PAWN);
+        int mg = 0, eg = 0;
+        for (int color = 0; color < 2; color++) {
+            boolean white = color == 0;
+            long own = white ? whitePawns : blackPawns;
+            long enemy = white ? blackPawns : whitePawns;
+            long enemyAttacks = Bitboards.pawnAttacksOf(!white, enemy);
+            int sign = white ? 1 : -1;
+            long passed = 0L;
+            for (long bb = own; bb != 0; bb &= bb - 1) {
+                int sq = Long.numberOfTrailingZeros(bb);
+                int col = Bitboards.column(sq);
+                boolean doubled = (FORWARD_FILE[color][sq] & own) != 0;
+                boolean isolated = (ADJACENT_FILES[col] & own) == 0;
+                if (doubled) {
+                    mg += sign * DOUBLED_MG;
+                    eg += sign * DOUBLED_EG;
+                }
+                if (isolated) {
+                    mg += sign * ISOLATED_MG;
+                    eg += sign * ISOLATED_EG;
+                } else if ((SUPPORT_SPAN[color][sq] & own) == 0
+                        && (Bitboards.bit(sq + (white ? -8 : 8)) & enemyAttacks) != 0) {
+                    // Atrasado: nenhum peão vizinho pode apoiá-lo e a casa à frente é controlada.
+                    mg += sign * BACKWARD_MG;
+                    eg += sign * BACKWARD_EG;
+                }
+                // Só o peão mais adiantado de uma coluna dobrada conta como passado.
+                if (!doubled && (PASSED_SPAN[color][sq] & enemy) == 0) {
+                    int rank = white ? 7 - Bitboards.row(sq) : Bitboards.row(sq);
+                    mg += sign * PASSED_MG[rank];
+                    eg += sign * PASSED_EG[rank];
+                    passed |= Bitboards.bit(sq);
+                }
+            }
+            if (white) passedWhite[entry] = passed; else passedBlack[entry] = passed;
+        }
+        middlegame[entry] = mg;
+        endgame[entry] = eg;
+    }
+}
@@ -0,0 +1,156 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * Ferramenta de perft ("performance test"): conta os nós da árvore de lances legais até uma
+ * profundidade fixa e compara com valores de referência conhecidos. É a forma padrão de validar
+ * o gerador de lances e o make/unmake, e de medir a sua velocidade em nós por segundo.
+ * <p>
+ * Uso:
+ * <pre>
+ *   java controller.Perft [profundidade] [fen]      divide por lance da raiz + total e nós/s
+ *   java controller.Perft --suite [profundidade]    posições de referência com contagens esperadas
+ * </pre>
+ * No último nível os lances são apenas contados (bulk counting), sem serem executados.
+ */
+public final class Perft {
+
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // Posições de referência (chessprogramming.org/Perft_Results) e contagens por profundidade (1, 2, ...).
+    private static final String[] SUITE_FENS = {
+        START_FEN,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+    };
+    private static final long[][] SUITE_COUNTS = {
+        {20, 400, 8902, 197281, 4865609, 119060324L},
+        {48, 2039, 97862, 4085603, 193690690L},
+        {14, 191, 2812, 43238, 674624, 11030083L},
+        {6, 264, 9467, 422333, 15833292L},
+        {44, 1486, 62379, 2103487, 89941194L},
+        {46, 2079, 89890, 3894594, 164075551L},
+    };
+
+    private static final int MAX_DEPTH = 64;
+
+    private final Game game;
+    private final MoveList[] moveLists = new MoveList[MAX_DEPTH];
+
+    public Perft(Game game) {
+        this.game = game;
+        for (int i = 0; i < MAX_DEPTH; i++) moveLists[i] = new MoveList();
+    }
+
+    /**
+     * Conta as posições folha alcançáveis a partir da posição atual do jogo.
+     *
+     * @param depth A profundidade (em meios-lances), no máximo 64.
+     * @return O número de nós folha.
+     */
+    public long perft(int depth) {
+        return perft(depth, 0);
+    }
+
+    private long perft(int depth, int ply) {
+        if (depth == 0) return 1;
+        MoveList moves = moveLists[ply];
+        game.generateLegalMoves(moves);
+        if (depth == 1) return moves.size();
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            nodes += perft(depth - 1, ply + 1);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Imprime a contagem de nós para cada lance da raiz ("divide"), o total e a velocidade.
+     * Útil para localizar um erro do gerador comparando com outro programa lance a lance.
+     *
+     * @return O total de nós.
+     */
+    public long divide(int depth) {
+        long start = System.nanoTime();
+        MoveList moves = moveLists[0];
+        game.generateLegalMoves(moves);
+        long total = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            game.makeMove(move);
+            long nodes = perft(depth - 1, 1);
+            game.unmakeMove();
+            // A lista da raiz não é reaproveitada pelos níveis abaixo, então continua válida.
+            System.out.println(Move.toString(move) + ": " + nodes);
+            total += nodes;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println();
+        System.out.println("Lances: " + moves.size());
+        System.out.println("Nós:    " + total);
+        printSpeed(total, elapsed);
+        return total;
+    }
+
+    /**
+     * Executa as posições de referência até a profundidade indicada (limitada às contagens
+     * conhecidas de cada posição) e informa divergências.
+     *
+     * @return True se todas as contagens conferem.
+     */
+    public static boolean runSuite(int maxDepth) {
+        boolean ok = true;
+        long totalNodes = 0, totalTime = 0;
+        for (int i = 0; i < SUITE_FENS.length; i++) {
+            Game game = new Game();
+            game.loadFen(SUITE_FENS[i]);
+            Perft perft = new Perft(game);
+            System.out.println(SUITE_FENS[i]);
+            int depths = Math.min(maxDepth, SUITE_COUNTS[i].length);
+            for (int d = 1; d <= depths; d++) {
+                long start = System.nanoTime();
+                long nodes = perft.perft(d);
+                long elapsed = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalTime += elapsed;
+                long expected = SUITE_COUNTS[i][d - 1];
+                boolean match = nodes == expected;
+                ok &= match;
+                System.out.printf("  profundidade %d: %,d %s (%.3f s)%n", d, nodes,
+                        match ? "ok" : "ERRO, esperado " + expected, elapsed / 1e9);
+            }
+        }
+        System.out.println();
+        printSpeed(totalNodes, totalTime);
+        System.out.println(ok ? "Todas as contagens conferem." : "Há contagens divergentes!");
+        return ok;
+    }
+
+    private static void printSpeed(long nodes, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("Tempo:  %.3f s%n", seconds);
+        System.out.printf("Nós/s:  %,.0f%n", seconds > 0 ? nodes / seconds : 0.0);
+    }
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--suite")) {
+            int depth = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+            if (!runSuite(depth)) System.exit(1);
+            return;
+        }
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Game game = new Game();
+        if (args.length > 1) {
+            // A FEN pode vir como um único argumento ou separada em vários.
+            game.loadFen(String.join(" ", Arrays.copyOfRange(args, 1, args.length)));
+        }
+        new Perft(game).divide(depth);
+    }
+}
@@ -0,0 +1,450 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.board.Board;
+import model.board.PieceSquareTables;
+import model.pieces.Piece;
+
+/**
+ * Estado e algoritmo de busca de uma thread da IA. Cada thread (a principal e as auxiliares
+ * do Lazy SMP) tem o seu próprio SearchWorker, com a sua cópia do jogo, as listas de lances
+ * por ply, os killers, o histórico e a tabela de peões; apenas a tabela de transposição e o
+ * cache de avaliação são compartilhados.
+ * <p>
+ * A busca é um Minimax na forma negamax com poda Alfa-Beta e PVS, tabela de transposição,
+ * poda de lance nulo, redução de lances tardios e busca de quiescência nas folhas, chamada
+ * pelo aprofundamento iterativo com janelas de aspiração.
+ */
+final class SearchWorker {
+
+    // Associa um movimento (codificado) a sua pontuação para facilitar a ordenação.
+    record MoveScore(int move, int score) {}
+
+    // Profundidade máxima (em meios-lances) alcançável pela busca.
+    static final int MAX_PLY = 128;
+
+    // Pontuação de xeque-mate. A distância até a raiz é descontada para preferir mates mais rápidos.
+    static final int MATE_SCORE = 1_000_000;
+    // Qualquer pontuação acima disto (em módulo) é um mate: os da busca estão a até MAX_PLY
+    // meios-lances da raiz, e os das tabelas de finais a até mais Tablebase.MAX_PLIES.
+    static final int MATE_BOUND = MATE_SCORE - MAX_PLY - Tablebase.MAX_PLIES;
+    // Maior que qualquer pontuação possível; usado como janela inicial da busca.
+    static final int INFINITY = MATE_SCORE + 1;
+
+    // Valor material de cada tipo de peça (índice = Piece.PAWN ... Piece.KING).
+    private static final int[] PIECE_VALUES = PieceSquareTables.MATERIAL;
+
+    // Folga da poda delta: uma captura que, mesmo com este bônus, não alcança alfa é ignorada.
+    private static final int DELTA_MARGIN = 200;
+
+    // Meia largura inicial da janela de aspiração (dobra a cada falha) e profundidade a partir da qual é usada.
+    private static final int ASPIRATION_WINDOW = 40;
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+
+    // Poda de lance nulo: profundidade mínima e redução base (mais 1 a cada 6 de profundidade).
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_REDUCTION = 2;
+
+    // Redução de lances tardios: profundidade mínima e quantos lances são examinados sem redução.
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_FULL_MOVES = 3;
+    // Redução (em meios-lances) por profundidade restante e número do lance: ~ ln(profundidade) * ln(lance).
+    private static final int[][] LMR_TABLE = new int[MAX_PLY][256];
+    static {
+        for (int d = 1; d < MAX_PLY; d++) {
+            for (int m = 1; m < 256; m++) {
+                LMR_TABLE[d][m] = (int) (0.75 + Math.log(d) * Math.log(m) / 2.25);
+            }
+        }
+    }
+
+    private final AIController ai;
+
+    // Uma lista de lances por nível da busca, reutilizada em todos os nós daquele nível.
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    {
+        for (int i = 0; i < MAX_PLY; i++) moveLists[i] = new MoveList();
+    }
+
+    // Killers e histórico usados para ordenar os lances de cada nó.
+    private final MoveOrderer orderer = new MoveOrderer(MAX_PLY);
+
+    // Cache da estrutura de peões desta thread.
+    private final PawnHashTable pawnHash = new PawnHashTable(AIController.PAWN_HASH_ENTRIES);
+
+    // Vetores de trabalho das consultas às tabelas de finais.
+    private final Tablebase.Scratch tablebaseScratch = new Tablebase.Scratch();
+
+    // Configuração copiada do AIController no início de cada busca.
+    private TranspositionTable tt;
+    private EvalCache evalCache;
+    private Tablebase tablebase;
+    private boolean nullMovePruning, lateMoveReductions;
+
+    // Nós visitados na busca atual (lido pela thread principal depois que esta thread termina).
+    private long nodes;
+
+    SearchWorker(AIController ai) {
+        this.ai = ai;
+    }
+
+    /**
+     * Prepara uma nova busca: esquece killers, histórico e a contagem de nós.
+     */
+    void newSearch(TranspositionTable tt, EvalCache evalCache, Tablebase tablebase,
+                   boolean nullMovePruning, boolean lateMoveReductions) {
+        this.tt = tt;
+        this.evalCache = evalCache;
+        this.tablebase = tablebase;
+        this.nullMovePruning = nullMovePruning;
+        this.lateMoveReductions = lateMoveReductions;
+        this.nodes = 0;
+        orderer.clear();
+    }
+
+    long nodes() {
+        return nodes;
+    }
+
+    /**
+     * Aprofundamento iterativo: busca em profundidade firstDepth, depois na seguinte, etc., até o
+     * tempo esgotar. Isso garante que sempre tenhamos um resultado, mesmo que o tempo seja curto.
+     * Depois de cada iteração completa, a raiz é reordenada pelas pontuações obtidas.
+     *
+     * @param rootMoves Os lances da raiz (a lista é reordenada).
+     * @param multiPv Quantos lances precisam de pontuação exata.
+     * @param firstDepth A primeira profundidade (as threads auxiliares variam este valor).
+     * @return O resultado da última iteração completa (vazio se nenhuma terminou).
+     */
+    List<MoveScore> iterativeDeepening(Game game, MoveList rootMoves, int multiPv, int firstDepth) {
+        List<MoveScore> best = new ArrayList<>();
+        for (int depth = firstDepth; depth < 100; depth++) {
+            List<MoveScore> current = searchWithAspiration(game, depth, rootMoves, multiPv, best);
+            if (current == null) break; // Interrompe se o tempo acabou.
+            best = current; // Salva o resultado da última busca completa.
+            for (int i = 0; i < best.size(); i++) rootMoves.set(i, best.get(i).move());
+        }
+        return best;
+    }
+
+    /**
+     * Ordena a raiz de uma vez antes da primeira iteração (lance da tabela, capturas, ...).
+     */
+    void orderRootMoves(Game game, MoveList moves) {
+        orderer.score(game, moves, 0, TranspositionTable.move(tt.probe(game.zobristKey())));
+        for (int i = 0; i < moves.size(); i++) orderer.next(moves, 0, i);
+    }
+
+    /**
+     * Executa uma iteração do aprofundamento iterativo com janela de aspiração: em vez da
+     * janela infinita, a raiz é buscada numa janela estreita em torno das pontuações da
+     * iteração anterior (do multiPv-ésimo melhor lance até o melhor). Se o resultado cair
+     * fora da janela, ela é alargada (dobrando a margem) e a raiz é buscada de novo.
+     *
+     * @param previous Resultado da iteração anterior (vazio na primeira).
+     * @return Os lances com suas pontuações, do melhor para o pior, ou null se o tempo acabou.
+     */
+    List<MoveScore> searchWithAspiration(Game game, int depth, MoveList rootMoves, int multiPv,
+                                                 List<MoveScore> previous) {
+        int needed = Math.min(multiPv, rootMoves.size());
+        int alpha = -INFINITY, beta = INFINITY, delta = ASPIRATION_WINDOW;
+        if (depth >= ASPIRATION_MIN_DEPTH && previous.size() >= needed) {
+            int best = previous.get(0).score();
+            int kth = previous.get(needed - 1).score();
+            if (Math.abs(best) < MATE_BOUND && Math.abs(kth) < MATE_BOUND) {
+                alpha = kth - delta;
+                beta = best + delta;
+            }
+        }
+
+        while (true) {
+            List<MoveScore> scored = searchRoot(game, depth, rootMoves, multiPv, alpha, beta);
+            if (scored == null) return null;
+            if (scored.get(0).score() >= beta) {
+                // Falha alta: o lance que superou beta passa a ser examinado primeiro.
+                moveToFront(rootMoves, scored.get(0).move());
+                beta = Math.min(INFINITY, beta + delta);
+            } else if (scored.size() < needed || scored.get(needed - 1).score() <= alpha) {
+                // Falha baixa: menos de multiPv lances com pontuação exata.
+                alpha = Math.max(-INFINITY, alpha - delta);
+            } else {
+                return scored;
+            }
+            delta *= 2;
+        }
+    }
+
+    /**
+     * Busca todos os lances da raiz com PVS dentro da janela (alpha, beta). Os primeiros
+     * multiPv lances que superam alfa recebem pontuação exata; a partir daí cada lance é
+     * testado com janela nula contra o multiPv-ésimo melhor e só é buscado de novo, com a
+     * janela completa, se o superar. Os demais ficam com um limite superior da pontuação,
+     * suficiente para saber que não estão entre os melhores.
+     *
+     * @return Os lances ordenados do melhor para o pior (interrompido no primeiro que alcançar
+     *         beta), ou null se o tempo acabou.
+     */
+    private List<MoveScore> searchRoot(Game game, int depth, MoveList rootMoves, int multiPv, int alpha, int beta) {
+        List<MoveScore> scored = new ArrayList<>(rootMoves.size());
+
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            // Limite a superar: alfa, ou a pontuação do multiPv-ésimo melhor lance já encontrado.
+            int floor = scored.size() < multiPv ? alpha : Math.max(alpha, scored.get(multiPv - 1).score());
+            game.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -negamax(game, depth - 1, 1, -beta, -floor, true);
+            } else {
+                score = -negamax(game, depth - 1, 1, -floor - 1, -floor, true);
+                if (score > floor && score < beta && !ai.isTimeUp()) {
+                    score = -negamax(game, depth - 1, 1, -beta, -floor, true);
+                }
+            }
+            game.unmakeMove();
+            if (ai.isTimeUp()) return null; // Iteração incompleta: descartada.
+            insertSorted(scored, new MoveScore(move, score));
+            if (score >= beta) break;
+        }
+        return scored;
+    }
+
+    // Insere mantendo a lista em ordem decrescente de pontuação (a raiz tem poucas dezenas de lances).
+    private static void insertSorted(List<MoveScore> scored, MoveScore entry) {
+        int i = scored.size();
+        while (i > 0 && scored.get(i - 1).score() < entry.score()) i--;
+        scored.add(i, entry);
+    }
+
+    private static void moveToFront(MoveList moves, int move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                for (int j = i; j > 0; j--) moves.swap(j, j - 1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Busca a posição até uma profundidade fixa, a partir da raiz (usado pelos benchmarks).
+     *
+     * @return A avaliação da posição do ponto de vista de quem tem a vez.
+     */
+    int searchFixedDepth(Game game, int depth) {
+        return negamax(game, depth, 0, -INFINITY, INFINITY, true);
+    }
+
+    /**
+     * Implementação recursiva do Minimax com poda Alfa-Beta na forma negamax: a pontuação é
+     * sempre do ponto de vista de quem tem a vez, e a do filho é negada ao subir.
+     * Os lances são feitos e desfeitos no mesmo objeto Game (makeMove/unmakeMove).
+     * Cada nó consulta a tabela de transposição antes de gerar lances e guarda nela o resultado;
+     * os lances são percorridos na ordem dada pelo {@link MoveOrderer}, o primeiro com a janela
+     * completa e os demais com janela nula (PVS).
+     * <p>
+     * Buscas seletivas (fora dos nós PV e fora de xeque):
+     * <ul>
+     *   <li>lance nulo: se mesmo passando a vez o lado que joga ainda alcança beta numa busca
+     *       reduzida, a posição é boa demais e o nó é cortado. Não é usado quando o lado só tem
+     *       peões (finais de peões são cheios de zugzwang) nem logo após outro lance nulo;</li>
+     *   <li>LMR: lances quietos que aparecem tarde na ordenação são buscados com profundidade
+     *       reduzida; se mesmo assim superarem alfa, são buscados de novo sem redução.</li>
+     * </ul>
+     *
+     * @param depth Profundidade restante da busca.
+     * @param ply Distância (em meios-lances) até a raiz; indexa a lista de lances do nível.
+     * @param alpha Pontuação que o lado que joga já tem garantida.
+     * @param beta Pontuação a partir da qual o adversário evita esta posição (corte).
+     * @param allowNull False logo após um lance nulo (dois seguidos não provam nada).
+     * @return A avaliação da posição para o lado que joga.
+     */
+    private int negamax(Game game, int depth, int ply, int alpha, int beta, boolean allowNull) {
+        if (ai.isTimeUp()) return 0;
+        nodes++;
+        if (ply > 0) {
+            if (game.getHalfmoveClock() >= 100) return 0; // Empate pela regra dos 50 movimentos.
+            if (game.isRepetition()) return 0; // Repetir a posição leva ao empate.
+            // Final de até 4 peças: o valor exato vem da tabela de finais.
+            if (tablebase != null) {
+                int value = tablebase.probe(game, tablebaseScratch);
+                if (value != Tablebase.NOT_FOUND) return tablebaseScore(value, ply);
+            }
+        }
+        if (depth <= 0) {
+            return quiescence(game, ply, alpha, beta);
+        }
+
+        long key = game.zobristKey();
+        // Nós PV (janela aberta) não usam cortes da tabela, para manter a variante principal exata.
+        boolean pvNode = beta - alpha > 1;
+        long entry = tt.probe(key);
+        int hashMove = TranspositionTable.move(entry);
+        if (entry != 0 && !pvNode && TranspositionTable.depth(entry) >= depth) {
+            int ttScore = scoreFromTT(TranspositionTable.score(entry), ply);
+            switch (TranspositionTable.bound(entry)) {
+                case TranspositionTable.EXACT -> { return ttScore; }
+                case TranspositionTable.LOWER -> { if (ttScore >= beta) return ttScore; }
+                default -> { if (ttScore <= alpha) return ttScore; }
+            }
+        }
+
+        boolean white = game.whiteToMove();
+        boolean inCheck = game.inCheck(white);
+
+        // Poda de lance nulo.
+        if (nullMovePruning && allowNull && !pvNode && !inCheck && depth >= NULL_MOVE_MIN_DEPTH
+                && hasPiecesOtherThanPawns(game, white) && Math.abs(beta) < MATE_BOUND) {
+            int reduction = NULL_MOVE_REDUCTION + depth / 6;
+            game.makeNullMove();
+            int score = -negamax(game, depth - 1 - reduction, ply + 1, -beta, -beta + 1, false);
+            game.unmakeMove();
+            if (ai.isTimeUp()) return 0;
+            if (score >= beta) return score >= MATE_BOUND ? beta : score; // Mates após passar a vez não são confiáveis.
+        }
+
+        MoveList allMoves = moveLists[ply];
+        game.generateLegalMoves(allMoves);
+        if (allMoves.isEmpty()) {
+            // Sem lances legais: xeque-mate (perde quem tem a vez) ou afogamento (empate).
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+        orderer.score(game, allMoves, ply, hashMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < allMoves.size(); i++) {
+            int move = orderer.next(allMoves, ply, i);
+            boolean quiet = !Move.isCapture(move) && Move.promotion(move) == 0;
+            game.makeMove(move);
+            int score;
+            if (i == 0) {
+                score = -negamax(game, depth - 1, ply + 1, -beta, -alpha, true);
+            } else {
+                // LMR: lances quietos tardios (que não dão xeque) começam com profundidade reduzida.
+                int reduction = 0;
+                if (lateMoveReductions && quiet && !inCheck && depth >= LMR_MIN_DEPTH && i >= LMR_FULL_MOVES
+                        && !game.inCheck(game.whiteToMove())) {
+                    reduction = Math.min(LMR_TABLE[depth][i], depth - 2);
+                }
+                // PVS: os demais lances só precisam provar que não superam alfa (janela nula);
+                // se superarem, são buscados de novo sem redução e depois com a janela completa.
+                score = -negamax(game, depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, true);
+                if (score > alpha && reduction > 0) {
+                    score = -negamax(game, depth - 1, ply + 1, -alpha - 1, -alpha, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -negamax(game, depth - 1, ply + 1, -beta, -alpha, true);
+                }
+            }
+            game.unmakeMove();
+            if (ai.isTimeUp()) return 0; // Resultado incompleto: não vai para a tabela.
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) alpha = score;
+                if (alpha >= beta) { // Poda Alfa-Beta: o adversário não permitiria esta linha.
+                    if (quiet) orderer.onQuietCutoff(move, white, ply, depth);
+                    break;
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                  : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        tt.store(key, bestMove, scoreToTT(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    // Salvaguarda contra zugzwang: o lance nulo só é tentado se o lado tiver peças além de peões e rei.
+    private static boolean hasPiecesOtherThanPawns(Game game, boolean white) {
+        Board board = game.board();
+        return (board.pieces(white, Piece.KNIGHT) | board.pieces(white, Piece.BISHOP)
+              | board.pieces(white, Piece.ROOK) | board.pieces(white, Piece.QUEEN)) != 0;
+    }
+
+    /**
+     * Busca de quiescência: no horizonte da busca principal a posição só é avaliada depois
+     * que as trocas em andamento se resolvem. Examina apenas capturas e promoções a dama
+     * (ou todas as evasões, se o lado que joga está em xeque).
+     * <ul>
+     *   <li>stand-pat: fora de xeque, o lado que joga pode "parar" e aceitar a avaliação
+     *       estática, que serve de limite inferior (e corta se já alcança beta);</li>
+     *   <li>poda delta: capturas cujo ganho máximo (valor da vítima + margem) não leva a
+     *       avaliação estática até alfa são ignoradas.</li>
+     * </ul>
+     */
+    private int quiescence(Game game, int ply, int alpha, int beta) {
+        if (ai.isTimeUp()) return 0;
+        nodes++;
+        boolean white = game.whiteToMove();
+        boolean inCheck = game.inCheck(white);
+        int standPat = 0;
+        if (!inCheck || ply >= MAX_PLY - 1) {
+            long key = game.zobristKey();
+            standPat = evalCache.probe(key);
+            if (standPat == EvalCache.MISS) {
+                standPat = ai.evaluateBoard(game, white, pawnHash);
+                evalCache.store(key, standPat);
+            }
+            if (!white) standPat = -standPat;
+            if (ply >= MAX_PLY - 1) return standPat;
+        }
+
+        MoveList moves = moveLists[ply];
+        int bestScore;
+        if (inCheck) {
+            // Em xeque não existe stand-pat: todas as evasões são examinadas.
+            game.generateLegalMoves(moves);
+            if (moves.isEmpty()) return -MATE_SCORE + ply;
+            bestScore = -INFINITY;
+        } else {
+            if (standPat >= beta) return standPat;
+            if (standPat > alpha) alpha = standPat;
+            bestScore = standPat;
+            game.generateCaptures(moves);
+        }
+        orderer.score(game, moves, ply, Move.NONE);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = orderer.next(moves, ply, i);
+            if (!inCheck && Move.promotion(move) == 0) {
+                int victim = Move.isEnPassant(move) ? Piece.PAWN : game.board().get(Move.to(move)).getType();
+                if (standPat + PIECE_VALUES[victim] + DELTA_MARGIN <= alpha) continue; // Poda delta.
+            }
+            game.makeMove(move);
+            int score = -quiescence(game, ply + 1, -beta, -alpha);
+            game.unmakeMove();
+            if (ai.isTimeUp()) return 0;
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) alpha = score;
+                if (alpha >= beta) break;
+            }
+        }
+        return bestScore;
+    }
+
+    // Converte o valor de uma tabela de finais (mate em N lances, ou empate) para a escala da
+    // busca, contando a distância até a raiz como nos mates encontrados pela própria busca.
+    private static int tablebaseScore(int value, int ply) {
+        if (value == Tablebase.DRAW) return 0;
+        if (value < Tablebase.LOSS) return MATE_SCORE - ply - (2 * value - 1);
+        return -MATE_SCORE + ply + 2 * (value - Tablebase.LOSS);
+    }
+
+    // Pontuações de mate são guardadas relativas ao nó (distância até o mate), não à raiz,
+    // para continuarem corretas quando a posição for encontrada em outro ply.
+    private static int scoreToTT(int score, int ply) {
+        if (score > MATE_BOUND) return score + ply;
+        if (score < -MATE_BOUND) return score - ply;
+        return score;
+    }
+
+    private static int scoreFromTT(int score, int ply) {
+        if (score > MATE_BOUND) return score - ply;
+        if (score < -MATE_BOUND) return score + ply;
+        return score;
+    }
+}
@@ -0,0 +1,237 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import model.board.Board;
+import model.pieces.Piece;
+
+/**
+ * Tabelas de finais (tablebases) de 3 e 4 peças, geradas por {@link TablebaseGenerator}.
+ * Cada material (por exemplo "KRK" ou "KQKR") tem um arquivo com um byte por posição:
+ * <ul>
+ *   <li>0: empate;</li>
+ *   <li>1-127: o lado que joga ganha, dando mate em tantos lances (DTM);</li>
+ *   <li>128-254: o lado que joga perde, levando mate em (valor - 128) lances (128 = já está em mate);</li>
+ *   <li>255: posição impossível.</li>
+ * </ul>
+ * O índice da posição é (vez, rei branco, rei preto, demais peças), 6 bits por casa, sem
+ * redução por simetria do tabuleiro. Só existe o arquivo com o lado mais forte nas Brancas;
+ * a posição com as cores trocadas é consultada espelhando o tabuleiro. As tabelas ignoram
+ * roque, en passant e a regra dos 50 lances, então só são consultadas sem direitos de roque
+ * e quando não há captura en passant possível.
+ * <p>
+ * Os arquivos são mapeados em memória ({@link FileChannel#map}) na primeira consulta de cada
+ * material.
+ */
+public final class Tablebase {
+
+    static final int DRAW = 0, LOSS = 128, INVALID = 255;
+    // Devolvido por probe quando a posição não é coberta pelas tabelas disponíveis.
+    static final int NOT_FOUND = -1;
+    // Maior distância até o mate guardada nas tabelas, em meios-lances (DTM 127).
+    static final int MAX_PLIES = 2 * (LOSS - 1);
+
+    // Peças no tabuleiro, reis incluídos.
+    static final int MAX_PIECES = 4;
+    static final String EXTENSION = ".tb";
+
+    // Letras das peças por tipo (Piece.PAWN ... Piece.KING).
+    private static final String LETTERS = "PNBRQK";
+
+    private final Path directory;
+    // Tabela por código de material (ver materialCode); MISSING se o arquivo não existe.
+    private final AtomicReferenceArray<ByteBuffer> tables = new AtomicReferenceArray<>(11 * 11 * 11);
+    private static final ByteBuffer MISSING = ByteBuffer.allocate(0);
+    // Uma posição de jogo marcada como impossível indica erro de índice; é avisado uma vez.
+    private volatile boolean invalidReported;
+
+    /**
+     * Vetores de trabalho de {@link #probe(Game, Scratch)}. Cada thread de busca tem o seu,
+     * para que a consulta não aloque memória.
+     */
+    static final class Scratch {
+        final int[] types = new int[MAX_PIECES - 2];
+        final boolean[] white = new boolean[MAX_PIECES - 2];
+        final int[] squares = new int[MAX_PIECES - 2];
+    }
+
+    private Tablebase(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param directory A pasta com os arquivos das tabelas. Os arquivos só são abertos quando
+     *                  uma posição do seu material é consultada.
+     */
+    public static Tablebase open(Path directory) {
+        return new Tablebase(directory);
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    /**
+     * Consulta a posição atual do jogo.
+     *
+     * @return O valor da tabela para o lado que joga (ver a descrição da classe), ou
+     *         {@link #NOT_FOUND} se a posição não é coberta.
+     */
+    int probe(Game game, Scratch scratch) {
+        Board board = game.board();
+        int whiteCount = board.pieceCount(true), blackCount = board.pieceCount(false);
+        if (whiteCount + blackCount > MAX_PIECES) return NOT_FOUND;
+        if (game.getCastlingRights() != 0 || game.canCaptureEnPassant()) return NOT_FOUND;
+
+        int[] types = scratch.types;
+        boolean[] white = scratch.white;
+        int[] squares = scratch.squares;
+        int count = 0, whiteKing = -1, blackKing = -1;
+        for (int color = 0; color < 2; color++) {
+            boolean isWhite = color == 0;
+            for (int i = 0; i < board.pieceCount(isWhite); i++) {
+                Piece p = board.getPiece(isWhite, i);
+                int sq = p.getPosition().index();
+                if (p.getType() == Piece.KING) {
+                    if (isWhite) whiteKing = sq; else blackKing = sq;
+                } else {
+                    types[count] = p.getType();
+                    white[count] = isWhite;
+                    squares[count++] = sq;
+                }
+            }
+        }
+        if (whiteKing < 0 || blackKing < 0) return NOT_FOUND;
+        int value = probe(types, white, squares, count, whiteKing, blackKing, game.whiteToMove());
+        if (value == INVALID) {
+            if (!invalidReported) {
+                invalidReported = true;
+                System.err.println("Tabela de finais: posição marcada como impossível: " + game.toFen());
+            }
+            return NOT_FOUND;
+        }
+        return value;
+    }
+
+    /**
+     * Consulta uma posição dada pelas peças (sem os reis), em qualquer ordem. Os vetores
+     * são reordenados no lugar.
+     *
+     * @return O valor da tabela para o lado que joga, ou {@link #NOT_FOUND} se não há tabela.
+     */
+    int probe(int[] types, boolean[] white, int[] squares, int count, int whiteKing, int blackKing, boolean whiteToMove) {
+        if (count == 0) return DRAW; // Só os reis.
+        sort(types, white, squares, count);
+        ByteBuffer table = table(types, white, count);
+        if (table == MISSING) return NOT_FOUND;
+
+        // A tabela guarda o lado mais forte como Brancas; senão, troca as cores e espelha as casas.
+        boolean swap = !isCanonical(types, white, count);
+        long index = swap ? 1 - (whiteToMove ? 0 : 1) : (whiteToMove ? 0 : 1);
+        index = index * 64 + (swap ? blackKing ^ 56 : whiteKing);
+        index = index * 64 + (swap ? whiteKing ^ 56 : blackKing);
+        // Depois da troca, as peças pretas (que estão no fim da lista) vêm primeiro.
+        int blackStart = 0;
+        while (blackStart < count && white[blackStart]) blackStart++;
+        for (int n = 0; n < count; n++) {
+            int i = swap ? (n + blackStart) % count : n;
+            index = index * 64 + (swap ? squares[i] ^ 56 : squares[i]);
+        }
+        return table.get((int) index) & 0xFF;
+    }
+
+    // --- Material ---
+
+    /**
+     * Ordena as peças como no nome do material: Brancas primeiro, cada lado da mais valiosa
+     * para a menos valiosa.
+     */
+    static void sort(int[] types, boolean[] white, int[] squares, int count) {
+        for (int i = 1; i < count; i++) {
+            int t = types[i], sq = squares[i];
+            boolean w = white[i];
+            int j = i - 1;
+            while (j >= 0 && (white[j] == w ? types[j] < t : !white[j])) {
+                types[j + 1] = types[j];
+                white[j + 1] = white[j];
+                squares[j + 1] = squares[j];
+                j--;
+            }
+            types[j + 1] = t;
+            white[j + 1] = w;
+            squares[j + 1] = sq;
+        }
+    }
+
+    /**
+     * @return True se as Brancas têm o material mais forte (mais peças ou, com o mesmo número,
+     *         a primeira peça diferente mais valiosa) ou o mesmo material das Pretas.
+     */
+    static boolean isCanonical(int[] types, boolean[] white, int count) {
+        int whiteCount = 0;
+        while (whiteCount < count && white[whiteCount]) whiteCount++;
+        int blackCount = count - whiteCount;
+        if (whiteCount != blackCount) return whiteCount > blackCount;
+        for (int i = 0; i < whiteCount; i++) {
+            if (types[i] != types[whiteCount + i]) return types[i] > types[whiteCount + i];
+        }
+        return true;
+    }
+
+    /**
+     * @return O nome do material no formato "KQKR" (peças ordenadas por {@link #sort}), na forma
+     *         em que a tabela é guardada (lado mais forte nas Brancas).
+     */
+    static String canonicalName(int[] types, boolean[] white, int count) {
+        StringBuilder whites = new StringBuilder("K"), blacks = new StringBuilder("K");
+        for (int i = 0; i < count; i++) {
+            (white[i] ? whites : blacks).append(LETTERS.charAt(types[i]));
+        }
+        return isCanonical(types, white, count) ? whites + "" + blacks : blacks + "" + whites;
+    }
+
+    /**
+     * @return O número de posições (bytes) da tabela de um material com {@code count} peças além dos reis.
+     */
+    static int tableSize(int count) {
+        return 2 << (6 * (2 + count));
+    }
+
+    // Código do material (peças ordenadas): um dígito de 1 a 10 por peça, base 11.
+    private static int materialCode(int[] types, boolean[] white, int count) {
+        int code = 0;
+        for (int i = 0; i < count; i++) code = code * 11 + 1 + types[i] + (white[i] ? 0 : 5);
+        return code;
+    }
+
+    private ByteBuffer table(int[] types, boolean[] white, int count) {
+        int code = materialCode(types, white, count);
+        ByteBuffer table = tables.get(code);
+        if (table == null) {
+            table = map(canonicalName(types, white, count), count);
+            tables.compareAndSet(code, null, table);
+            table = tables.get(code);
+        }
+        return table;
+    }
+
+    private ByteBuffer map(String name, int count) {
+        Path file = directory.resolve(name + EXTENSION);
+        if (!Files.isRegularFile(file)) return MISSING;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != tableSize(count)) {
+                System.err.println("Tabela de finais com tamanho inválido: " + file);
+                return MISSING;
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            System.err.println("Erro ao abrir a tabela de finais '" + file + "': " + e.getMessage());
+            return MISSING;
+        }
+    }
+}
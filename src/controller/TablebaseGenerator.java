@@ -0,0 +1,476 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import model.board.Bitboards;
+import model.pieces.Piece;
+
+/**
+ * Gerador das tabelas de finais lidas por {@link Tablebase}, por análise retrógrada.
+ * <p>
+ * Uso:
+ * <pre>
+ *   java controller.TablebaseGenerator pasta KQK KRK KPK KQKR ...
+ * </pre>
+ * As tabelas de que um material depende (capturas e promoções levam a outro material) são
+ * geradas antes, se ainda não existirem na pasta.
+ * <p>
+ * Para cada material:
+ * <ol>
+ *   <li>uma passada direta por todas as posições marca as impossíveis, os mates e afogamentos,
+ *       conta os lances que ficam no mesmo material e avalia, pelas tabelas já geradas, os
+ *       lances que saem dele (capturas e promoções);</li>
+ *   <li>a partir dos mates, as posições são resolvidas em ordem crescente de distância (em
+ *       meios-lances): quem pode ir para uma posição perdida ganha; quem só tem lances para
+ *       posições ganhas pelo adversário perde. Os antecessores de cada posição são obtidos
+ *       "desfazendo" lances (sem capturas, que vêm de outro material);</li>
+ *   <li>o que não foi resolvido é empate.</li>
+ * </ol>
+ * En passant e roque não são considerados.
+ */
+public final class TablebaseGenerator {
+
+    // Estado de cada posição durante a geração.
+    private static final byte UNKNOWN = 0, WIN = 1, LOSS = 2, IMPOSSIBLE = 3;
+    // Marcas adicionais: há um lance de saída que ganha/empata; já foi posta na fila como
+    // vitória por um lance dentro do material.
+    private static final byte WIN_EXIT = 4, DRAW_EXIT = 8, QUEUED = 16;
+    private static final int RESULT_MASK = 3;
+
+    private static final int MAX_DISTANCE = 1024;
+
+    private final Tablebase tablebase;
+    private final Path directory;
+
+    public TablebaseGenerator(Path directory) {
+        this.directory = directory;
+        this.tablebase = Tablebase.open(directory);
+    }
+
+    /**
+     * Gera a tabela do material (por exemplo "KRK"), e antes as de que ela depende.
+     * Materiais já gerados na pasta são mantidos.
+     *
+     * @throws IOException Se a tabela não puder ser gravada.
+     */
+    public void generate(String material) throws IOException {
+        Material m = Material.parse(material);
+        Path file = directory.resolve(m.name + Tablebase.EXTENSION);
+        if (Files.isRegularFile(file)) return;
+        for (String dependency : m.dependencies()) generate(dependency);
+
+        long start = System.nanoTime();
+        byte[] table = new Job(m).run();
+        Files.createDirectories(directory);
+        Files.write(file, table);
+        System.out.printf("%s: %,d posições em %.1f s%n", m.name, table.length, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Material de uma tabela: as peças além dos reis, ordenadas como em {@link Tablebase#sort}.
+     */
+    private static final class Material {
+        final String name;
+        final int[] types;
+        final boolean[] white;
+
+        private Material(int[] types, boolean[] white) {
+            this.types = types;
+            this.white = white;
+            this.name = Tablebase.canonicalName(types, white, types.length);
+        }
+
+        static Material parse(String name) {
+            String s = name.trim().toUpperCase();
+            int second = s.indexOf('K', 1);
+            if (!s.startsWith("K") || second < 0 || s.length() - 2 > Tablebase.MAX_PIECES - 2) {
+                throw new IllegalArgumentException("Material inválido: " + name);
+            }
+            int count = s.length() - 2;
+            int[] types = new int[count];
+            boolean[] white = new boolean[count];
+            int[] squares = new int[count];
+            int n = 0;
+            for (int i = 1; i < s.length(); i++) {
+                if (i == second) continue;
+                int type = "PNBRQ".indexOf(s.charAt(i));
+                if (type < 0) throw new IllegalArgumentException("Material inválido: " + name);
+                types[n] = type;
+                white[n++] = i < second;
+            }
+            Tablebase.sort(types, white, squares, count);
+            // Guarda na forma canônica (lado mais forte nas Brancas).
+            if (!Tablebase.isCanonical(types, white, count)) {
+                for (int i = 0; i < count; i++) white[i] = !white[i];
+                Tablebase.sort(types, white, squares, count);
+            }
+            return new Material(types, white);
+        }
+
+        // Materiais alcançáveis por uma captura ou promoção.
+        String[] dependencies() {
+            Set<String> out = new LinkedHashSet<>();
+            int count = types.length;
+            for (int j = 0; j < count; j++) {
+                if (count > 1) out.add(without(j));
+                if (types[j] == Piece.PAWN) {
+                    for (int promo = Piece.KNIGHT; promo <= Piece.QUEEN; promo++) out.add(replaced(j, promo));
+                }
+            }
+            return out.toArray(new String[0]);
+        }
+
+        private String without(int j) {
+            int[] t = new int[types.length - 1];
+            boolean[] w = new boolean[types.length - 1];
+            for (int i = 0, n = 0; i < types.length; i++) {
+                if (i == j) continue;
+                t[n] = types[i];
+                w[n++] = white[i];
+            }
+            return Tablebase.canonicalName(t, w, t.length);
+        }
+
+        private String replaced(int j, int type) {
+            int[] t = types.clone();
+            boolean[] w = white.clone();
+            t[j] = type;
+            Tablebase.sort(t, w, new int[t.length], t.length);
+            return Tablebase.canonicalName(t, w, t.length);
+        }
+    }
+
+    /**
+     * Geração de uma tabela. Índice = (vez, rei branco, rei preto, peças), 6 bits por casa,
+     * como em {@link Tablebase}; vez 0 = Brancas.
+     */
+    private final class Job {
+        private final Material m;
+        private final int count, size;
+        private final byte[] state;
+        // Antes de resolver: a maior distância de derrota pelas saídas; depois: a distância final.
+        private final short[] distance;
+        // Lances restantes que ficam no material e ainda não se sabe se perdem.
+        private final byte[] remaining;
+        private final int[][] queue = new int[MAX_DISTANCE][];
+        private final int[] queueSize = new int[MAX_DISTANCE];
+
+        // Posição sendo examinada (decodificada do índice).
+        private boolean whiteToMove;
+        private int whiteKing, blackKing;
+        private final int[] squares;
+
+        // Vetores de trabalho para consultar as tabelas de saída.
+        private final int[] exitTypes, exitSquares;
+        private final boolean[] exitWhite;
+
+        Job(Material m) {
+            this.m = m;
+            this.count = m.types.length;
+            this.size = Tablebase.tableSize(count);
+            this.state = new byte[size];
+            this.distance = new short[size];
+            this.remaining = new byte[size];
+            this.squares = new int[count];
+            this.exitTypes = new int[count];
+            this.exitSquares = new int[count];
+            this.exitWhite = new boolean[count];
+        }
+
+        byte[] run() {
+            for (int index = 0; index < size; index++) initialize(index);
+            for (int d = 0; d < MAX_DISTANCE; d++) {
+                int[] bucket = queue[d];
+                for (int i = 0; i < queueSize[d]; i++) resolve(bucket[i], d);
+                queue[d] = null;
+            }
+
+            byte[] table = new byte[size];
+            for (int index = 0; index < size; index++) {
+                int d = distance[index];
+                table[index] = (byte) switch (state[index] & RESULT_MASK) {
+                    case WIN -> Math.min((d + 1) / 2, 127);
+                    case LOSS -> Tablebase.LOSS + Math.min(d / 2, 126);
+                    case IMPOSSIBLE -> Tablebase.INVALID;
+                    default -> Tablebase.DRAW;
+                };
+            }
+            return table;
+        }
+
+        // --- Passada direta ---
+
+        private void initialize(int index) {
+            decode(index);
+            if (!isValid()) {
+                state[index] = IMPOSSIBLE;
+                return;
+            }
+            int inside = 0, legal = 0;
+            int bestWin = Integer.MAX_VALUE, worstLoss = -1;
+            boolean drawExit = false;
+            long occupied = occupancy();
+
+            for (int j = -1; j < count; j++) {
+                if (j >= 0 && m.white[j] != whiteToMove) continue;
+                int from = j < 0 ? king(whiteToMove) : squares[j];
+                int type = j < 0 ? Piece.KING : m.types[j];
+                for (long targets = targets(type, whiteToMove, from, occupied); targets != 0; targets &= targets - 1) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    int captured = pieceAt(to);
+                    boolean promotion = type == Piece.PAWN && (Bitboards.row(to) == 0 || Bitboards.row(to) == 7);
+                    if (!isLegal(j, to, captured)) continue;
+                    legal++;
+                    if (captured < 0 && !promotion) {
+                        inside++;
+                        continue;
+                    }
+                    // Saída para outro material: o valor vem da tabela já gerada.
+                    for (int promo = promotion ? Piece.QUEEN : type; promo >= (promotion ? Piece.KNIGHT : type); promo--) {
+                        int value = probeExit(j, to, captured, promo);
+                        if (value == Tablebase.DRAW || value == Tablebase.INVALID) {
+                            drawExit = true;
+                        } else if (value >= Tablebase.LOSS) {
+                            bestWin = Math.min(bestWin, 2 * (value - Tablebase.LOSS) + 1);
+                        } else {
+                            worstLoss = Math.max(worstLoss, 2 * value);
+                        }
+                    }
+                }
+            }
+
+            if (legal == 0) {
+                if (isAttacked(king(whiteToMove), !whiteToMove, occupied, -1)) push(index, 0); // Mate.
+                return; // Afogamento: empate.
+            }
+            remaining[index] = (byte) inside;
+            distance[index] = (short) Math.max(worstLoss, 0);
+            if (bestWin != Integer.MAX_VALUE) {
+                // Pode ainda haver uma vitória mais rápida dentro do material; a menor distância sai da fila antes.
+                state[index] |= WIN_EXIT;
+                push(index, bestWin);
+            }
+            if (drawExit) state[index] |= DRAW_EXIT;
+            if (inside == 0 && bestWin == Integer.MAX_VALUE && !drawExit) {
+                push(index, worstLoss); // Todos os lances saem do material e perdem.
+            }
+        }
+
+        // Valor (para o adversário, que passa a jogar) da posição depois de um lance de saída.
+        private int probeExit(int mover, int to, int captured, int newType) {
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                if (i == captured) continue;
+                exitTypes[n] = i == mover ? newType : m.types[i];
+                exitWhite[n] = m.white[i];
+                exitSquares[n++] = i == mover ? to : squares[i];
+            }
+            int wk = whiteKing, bk = blackKing;
+            if (mover < 0) {
+                if (whiteToMove) wk = to; else bk = to;
+            }
+            int value = tablebase.probe(exitTypes, exitWhite, exitSquares, n, wk, bk, !whiteToMove);
+            if (value == Tablebase.NOT_FOUND) {
+                throw new IllegalStateException("Tabela necessária não encontrada para " + m.name);
+            }
+            return value;
+        }
+
+        // --- Propagação retrógrada ---
+
+        private void resolve(int index, int d) {
+            if ((state[index] & RESULT_MASK) != UNKNOWN) return;
+            boolean loss = d % 2 == 0;
+            state[index] = (byte) ((state[index] & ~RESULT_MASK) | (loss ? LOSS : WIN));
+            distance[index] = (short) d;
+
+            // Antecessores: o lado que acabou de jogar (o que não tem a vez) desfaz um lance.
+            decode(index);
+            boolean mover = !whiteToMove;
+            long occupied = occupancy();
+            for (int j = -1; j < count; j++) {
+                if (j >= 0 && m.white[j] != mover) continue;
+                int to = j < 0 ? king(mover) : squares[j];
+                int type = j < 0 ? Piece.KING : m.types[j];
+                for (long origins = origins(type, mover, to, occupied); origins != 0; origins &= origins - 1) {
+                    int from = Long.numberOfTrailingZeros(origins);
+                    int previous = encodeWith(j, from, mover);
+                    int st = state[previous];
+                    if ((st & RESULT_MASK) != UNKNOWN) continue;
+                    if (loss) {
+                        // Quem pode levar o adversário a uma posição perdida ganha.
+                        if ((st & QUEUED) == 0) {
+                            state[previous] = (byte) (st | QUEUED);
+                            push(previous, d + 1);
+                        }
+                    } else if (--remaining[previous] == 0 && (st & (WIN_EXIT | DRAW_EXIT | QUEUED)) == 0) {
+                        // Todos os lances levam a posições ganhas pelo adversário: perde.
+                        push(previous, Math.max(d + 1, distance[previous]));
+                    }
+                }
+            }
+        }
+
+        private void push(int index, int d) {
+            if (d >= MAX_DISTANCE) return; // Além do alcance da tabela: fica como empate.
+            int[] bucket = queue[d];
+            if (bucket == null) bucket = queue[d] = new int[1024];
+            if (queueSize[d] == bucket.length) bucket = queue[d] = Arrays.copyOf(bucket, bucket.length * 2);
+            bucket[queueSize[d]++] = index;
+        }
+
+        // --- Posições ---
+
+        private void decode(int index) {
+            for (int i = count - 1; i >= 0; i--) {
+                squares[i] = index & 63;
+                index >>>= 6;
+            }
+            blackKing = index & 63;
+            whiteKing = (index >>> 6) & 63;
+            whiteToMove = (index >>> 12) == 0;
+        }
+
+        // Índice da posição atual com a peça j (-1 = rei) em outra casa e a vez do lado informado.
+        private int encodeWith(int j, int sq, boolean white) {
+            int index = white ? 0 : 1;
+            index = index * 64 + (j < 0 && white ? sq : whiteKing);
+            index = index * 64 + (j < 0 && !white ? sq : blackKing);
+            for (int i = 0; i < count; i++) index = index * 64 + (i == j ? sq : squares[i]);
+            return index;
+        }
+
+        private int king(boolean white) {
+            return white ? whiteKing : blackKing;
+        }
+
+        private long occupancy() {
+            long occupied = Bitboards.bit(whiteKing) | Bitboards.bit(blackKing);
+            for (int i = 0; i < count; i++) occupied |= Bitboards.bit(squares[i]);
+            return occupied;
+        }
+
+        private long occupancy(boolean white) {
+            long occupied = Bitboards.bit(king(white));
+            for (int i = 0; i < count; i++) {
+                if (m.white[i] == white) occupied |= Bitboards.bit(squares[i]);
+            }
+            return occupied;
+        }
+
+        // Índice (em squares) da peça na casa, ou -1.
+        private int pieceAt(int sq) {
+            for (int i = 0; i < count; i++) {
+                if (squares[i] == sq) return i;
+            }
+            return -1;
+        }
+
+        private boolean isValid() {
+            long occupied = Bitboards.bit(whiteKing) | Bitboards.bit(blackKing);
+            if (whiteKing == blackKing || (Bitboards.kingAttacks(whiteKing) & Bitboards.bit(blackKing)) != 0) return false;
+            for (int i = 0; i < count; i++) {
+                long bit = Bitboards.bit(squares[i]);
+                if ((occupied & bit) != 0) return false;
+                occupied |= bit;
+                int row = Bitboards.row(squares[i]);
+                if (m.types[i] == Piece.PAWN && (row == 0 || row == 7)) return false;
+            }
+            // O lado que não tem a vez não pode estar em xeque.
+            return !isAttacked(king(!whiteToMove), whiteToMove, occupied, -1);
+        }
+
+        /**
+         * @param ignore Índice de uma peça a desconsiderar (capturada), ou -1.
+         */
+        private boolean isAttacked(int sq, boolean byWhite, long occupied, int ignore) {
+            if ((Bitboards.kingAttacks(king(byWhite)) & Bitboards.bit(sq)) != 0) return true;
+            for (int i = 0; i < count; i++) {
+                if (i == ignore || m.white[i] != byWhite) continue;
+                long attacks = switch (m.types[i]) {
+                    case Piece.PAWN -> Bitboards.pawnAttacks(byWhite, squares[i]);
+                    case Piece.KNIGHT -> Bitboards.knightAttacks(squares[i]);
+                    case Piece.BISHOP -> Bitboards.bishopAttacks(squares[i], occupied);
+                    case Piece.ROOK -> Bitboards.rookAttacks(squares[i], occupied);
+                    default -> Bitboards.queenAttacks(squares[i], occupied);
+                };
+                if ((attacks & Bitboards.bit(sq)) != 0) return true;
+            }
+            return false;
+        }
+
+        // O lance da peça j (-1 = rei) para a casa "to" não deixa o próprio rei em xeque.
+        private boolean isLegal(int j, int to, int captured) {
+            int from = j < 0 ? king(whiteToMove) : squares[j];
+            long occupied = (occupancy() & ~Bitboards.bit(from)) | Bitboards.bit(to);
+            if (j < 0) {
+                return !isAttacked(to, !whiteToMove, occupied, captured);
+            }
+            squares[j] = to;
+            boolean legal = !isAttacked(king(whiteToMove), !whiteToMove, occupied, captured);
+            squares[j] = from;
+            return legal;
+        }
+
+        // Destinos pseudo-legais (sem verificar xeque) de uma peça.
+        private long targets(int type, boolean white, int from, long occupied) {
+            long own = occupancy(white);
+            long enemyKing = Bitboards.bit(king(!white));
+            return switch (type) {
+                case Piece.PAWN -> {
+                    long enemies = occupied & ~own & ~enemyKing;
+                    long moves = Bitboards.pawnAttacks(white, from) & enemies;
+                    int one = from + (white ? -8 : 8);
+                    if ((occupied & Bitboards.bit(one)) == 0) {
+                        moves |= Bitboards.bit(one);
+                        int two = one + (white ? -8 : 8);
+                        if (Bitboards.row(from) == (white ? 6 : 1) && (occupied & Bitboards.bit(two)) == 0) {
+                            moves |= Bitboards.bit(two);
+                        }
+                    }
+                    yield moves;
+                }
+                case Piece.KNIGHT -> Bitboards.knightAttacks(from) & ~own & ~enemyKing;
+                case Piece.BISHOP -> Bitboards.bishopAttacks(from, occupied) & ~own & ~enemyKing;
+                case Piece.ROOK -> Bitboards.rookAttacks(from, occupied) & ~own & ~enemyKing;
+                case Piece.QUEEN -> Bitboards.queenAttacks(from, occupied) & ~own & ~enemyKing;
+                default -> Bitboards.kingAttacks(from) & ~own & ~enemyKing;
+            };
+        }
+
+        // Casas de onde a peça pode ter vindo para "to" sem capturar (lance desfeito).
+        private long origins(int type, boolean white, int to, long occupied) {
+            return switch (type) {
+                case Piece.PAWN -> {
+                    // Desfaz avanços: a peça volta uma (ou, da 4ª fileira relativa, duas) casas.
+                    int back = white ? 8 : -8;
+                    int one = to + back;
+                    int row = Bitboards.row(to);
+                    if (row == (white ? 6 : 1) || (occupied & Bitboards.bit(one)) != 0) yield 0L;
+                    long moves = Bitboards.bit(one);
+                    int two = one + back;
+                    if (row == (white ? 4 : 3) && (occupied & Bitboards.bit(two)) == 0) moves |= Bitboards.bit(two);
+                    yield moves;
+                }
+                case Piece.KNIGHT -> Bitboards.knightAttacks(to) & ~occupied;
+                case Piece.BISHOP -> Bitboards.bishopAttacks(to, occupied) & ~occupied;
+                case Piece.ROOK -> Bitboards.rookAttacks(to, occupied) & ~occupied;
+                case Piece.QUEEN -> Bitboards.queenAttacks(to, occupied) & ~occupied;
+                default -> Bitboards.kingAttacks(to) & ~occupied;
+            };
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: java controller.TablebaseGenerator pasta MATERIAL... (ex.: tablebases KQK KRK KPK)");
+            System.exit(2);
+        }
+        TablebaseGenerator generator = new TablebaseGenerator(Path.of(args[0]));
+        for (int i = 1; i < args.length; i++) generator.generate(args[i]);
+    }
+}
@@ -0,0 +1,131 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de transposição da busca: guarda, para cada posição já pesquisada (pela chave de
+ * Zobrist), a profundidade, o tipo de limite, a pontuação e o melhor lance encontrados.
+ * Assim a busca não repete o trabalho quando a mesma posição aparece por outra ordem de
+ * lances, e cada iteração do aprofundamento iterativo reaproveita a anterior.
+ * <p>
+ * O tamanho é uma potência de dois, configurado em MB. A tabela é dividida em baldes
+ * (buckets) de duas entradas:
+ * <ul>
+ *   <li>a primeira prefere profundidade: só é substituída por uma busca mais profunda
+ *       (ou igual), pela mesma posição ou se o seu conteúdo é de uma busca anterior;</li>
+ *   <li>a segunda é sempre substituída, garantindo espaço para as posições recentes.</li>
+ * </ul>
+ * Cada entrada ocupa dois longs: (chave XOR dados) e dados. Uma leitura só é aceita se
+ * o XOR dos dois reproduz a chave, o que descarta entradas escritas pela metade por outra
+ * thread sem precisar de travas.
+ */
+final class TranspositionTable {
+
+    // Tipos de limite da pontuação guardada.
+    static final int EXACT = 0;  // valor exato (dentro da janela alfa-beta)
+    static final int LOWER = 1;  // limite inferior (houve corte beta)
+    static final int UPPER = 2;  // limite superior (nenhum lance superou alfa)
+
+    // Formato dos dados (64 bits):
+    //  bits  0-18  lance (ver Move)
+    //  bits 19-40  pontuação + SCORE_OFFSET
+    //  bits 41-48  profundidade
+    //  bits 49-50  tipo de limite
+    //  bits 51-58  geração (busca em que a entrada foi escrita)
+    private static final int SCORE_SHIFT = 19, DEPTH_SHIFT = 41, BOUND_SHIFT = 49, AGE_SHIFT = 51;
+    private static final int SCORE_OFFSET = 1 << 21;
+    private static final long MOVE_MASK = (1L << 19) - 1;
+
+    // 2 entradas por balde, 2 longs por entrada.
+    private static final int LONGS_PER_BUCKET = 4;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    private final long[] table;
+    private final int bucketMask;
+    private int generation;
+
+    /**
+     * @param sizeMb O tamanho máximo em MB (arredondado para baixo até uma potência de dois).
+     */
+    TranspositionTable(int sizeMb) {
+        long bytes = Math.max(1, sizeMb) * 1024L * 1024L;
+        int buckets = Integer.highestOneBit((int) Math.min(bytes / BYTES_PER_BUCKET, 1 << 28));
+        this.table = new long[buckets * LONGS_PER_BUCKET];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Marca o início de uma nova busca: entradas de buscas anteriores passam a poder ser
+     * substituídas mesmo na posição que prefere profundidade.
+     */
+    void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0L);
+    }
+
+    /**
+     * Procura a posição na tabela.
+     *
+     * @return Os dados da entrada (ver {@link #move}, {@link #score}, {@link #depth},
+     *         {@link #bound}), ou 0 se a posição não estiver guardada.
+     */
+    long probe(long key) {
+        int i = index(key);
+        for (int slot = 0; slot < LONGS_PER_BUCKET; slot += 2) {
+            long data = table[i + slot + 1];
+            if ((table[i + slot] ^ data) == key && data != 0) return data;
+        }
+        return 0L;
+    }
+
+    /**
+     * Guarda o resultado da busca de uma posição, seguindo a política de substituição do balde.
+     */
+    void store(long key, int move, int score, int depth, int bound) {
+        int i = index(key);
+        long data = (move & MOVE_MASK)
+                  | ((long) (score + SCORE_OFFSET) << SCORE_SHIFT)
+                  | ((long) Math.max(0, Math.min(depth, 255)) << DEPTH_SHIFT)
+                  | ((long) bound << BOUND_SHIFT)
+                  | ((long) generation << AGE_SHIFT);
+
+        long storedData = table[i + 1];
+        boolean sameKey = (table[i] ^ storedData) == key;
+        if (sameKey || depth >= depth(storedData) || age(storedData) != generation) {
+            // Sem um lance novo, preserva o lance já conhecido da mesma posição.
+            if (sameKey && move == Move.NONE) data |= storedData & MOVE_MASK;
+            table[i] = key ^ data;
+            table[i + 1] = data;
+        } else {
+            table[i + 2] = key ^ data;
+            table[i + 3] = data;
+        }
+    }
+
+    static int move(long data) {
+        return (int) (data & MOVE_MASK);
+    }
+
+    static int score(long data) {
+        return (int) ((data >>> SCORE_SHIFT) & ((1L << 22) - 1)) - SCORE_OFFSET;
+    }
+
+    static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 3);
+    }
+
+    private static int age(long data) {
+        return (int) ((data >>> AGE_SHIFT) & 0xFF);
+    }
+
+    private int index(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * LONGS_PER_BUCKET;
+    }
+}
@@ -20,8 +20,9 @@ public final class GameState {
     private final boolean gameOver;
     private final String gameEndMessage;
     private final int halfmoveClock;
-    private final Map<String, Integer> positionHistory;
+    private final Map<Long, Integer> positionHistory;
     private final Position enPassantTarget;
+    private final int castlingRights;
 
     /**
      * Constrói um novo GameState a partir de uma instância ativa do jogo.
@@ -41,6 +42,7 @@ public final class GameState {
         this.positionHistory = new HashMap<>(game.getPositionHistory());
         // A classe Position já é imutável, então uma referência direta é segura.
         this.enPassantTarget = game.getEnPassantTarget();
+        this.castlingRights = game.getCastlingRights();
     }
 
     // --- Getters ---
@@ -82,9 +84,9 @@ public final class GameState {
     }
 
     /**
-     * @return O mapa do histórico de posições FEN para a regra de repetição tripla.
+     * @return O mapa do histórico de posições (chaves de Zobrist) para a regra de repetição tripla.
      */
-    public Map<String, Integer> getPositionHistory() {
+    public Map<Long, Integer> getPositionHistory() {
         return positionHistory;
     }
 
@@ -94,4 +96,11 @@ public final class GameState {
     public Position getEnPassantTarget() {
         return enPassantTarget;
     }
+
+    /**
+     * @return Os direitos de roque (bits Game.CASTLE_*) neste estado.
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,276 @@
+package model.board;
+
+/**
+ * Utilitários para a representação do tabuleiro em bitboards.
+ * Cada casa corresponde a um bit de um long, usando o mesmo índice de
+ * {@link Position}: índice = linha * 8 + coluna. Assim o bit 0 é a casa "a8"
+ * e o bit 63 é a casa "h1".
+ *
+ * Também contém as tabelas de ataque pré-calculadas: saltos do cavalo, casas
+ * vizinhas do rei, capturas de peão e os ataques das peças deslizantes (torre,
+ * bispo e dama) via "magic bitboards". Para as deslizantes, a ocupação relevante
+ * do raio é multiplicada por um número mágico e o resultado indexa diretamente
+ * a tabela de ataques, sem percorrer o raio casa a casa.
+ */
+public final class Bitboards {
+
+    // Máscaras das colunas extremas, usadas para evitar que deslocamentos "atravessem" a borda.
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+
+    // Máscaras das fileiras (linha 0 = fileira 8, linha 7 = fileira 1).
+    public static final long RANK_8 = 0xFFL;
+    public static final long RANK_1 = RANK_8 << 56;
+
+    private static final int[][] ROOK_DIRS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    // --- Tabelas de peças não deslizantes ---
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64]; // [0] brancas, [1] pretas
+
+    // --- Magic bitboards ---
+    // Números mágicos encontrados por busca aleatória (sem colisões destrutivas para esta
+    // numeração de casas). Fixá-los evita repetir a busca a cada inicialização.
+    private static final long[] ROOK_MAGIC = {
+        0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+        0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+        0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+        0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+        0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+        0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+        0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+        0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+        0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+        0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+        0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+        0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+        0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+        0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+        0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+        0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
+    private static final long[] BISHOP_MAGIC = {
+        0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+        0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+        0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+        0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+        0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+        0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+        0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+        0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+        0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+        0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+        0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+        0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+        0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+        0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+        0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+        0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L
+    };
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    // Casas estritamente entre duas casas alinhadas, e a linha inteira que passa por elas.
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            KNIGHT_ATTACKS[sq] = stepAttacks(sq, new int[][]{
+                {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}});
+            KING_ATTACKS[sq] = stepAttacks(sq, new int[][]{
+                {-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}});
+            PAWN_ATTACKS[0][sq] = stepAttacks(sq, new int[][]{{-1, -1}, {-1, 1}});
+            PAWN_ATTACKS[1][sq] = stepAttacks(sq, new int[][]{{1, -1}, {1, 1}});
+        }
+
+        for (int sq = 0; sq < 64; sq++) {
+            initMagic(sq, ROOK_DIRS, ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT, ROOK_TABLE);
+            initMagic(sq, BISHOP_DIRS, BISHOP_MASK, BISHOP_MAGIC, BISHOP_SHIFT, BISHOP_TABLE);
+        }
+
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) continue;
+                long ends = bit(a) | bit(b);
+                if ((rookAttacks(a, 0L) & bit(b)) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, bit(b)) & rookAttacks(b, bit(a));
+                    LINE[a][b] = (rookAttacks(a, 0L) & rookAttacks(b, 0L)) | ends;
+                } else if ((bishopAttacks(a, 0L) & bit(b)) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, bit(b)) & bishopAttacks(b, bit(a));
+                    LINE[a][b] = (bishopAttacks(a, 0L) & bishopAttacks(b, 0L)) | ends;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {}
+
+    /**
+     * @return O índice (0-63) da casa na linha e coluna informadas.
+     */
+    public static int square(int row, int column) {
+        return row * 8 + column;
+    }
+
+    /**
+     * @return Um bitboard com apenas o bit da casa informada ligado.
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @return A linha (0-7) de um índice de casa.
+     */
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    /**
+     * @return A coluna (0-7) de um índice de casa.
+     */
+    public static int column(int square) {
+        return square & 7;
+    }
+
+    // --- Consultas de ataque ---
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return As duas casas diagonais (ou menos, na borda) atacadas por um peão da cor informada.
+     */
+    public static long pawnAttacks(boolean white, int square) {
+        return PAWN_ATTACKS[white ? 0 : 1][square];
+    }
+
+    /**
+     * @return Todas as casas atacadas pelos peões do conjunto {@code pawns}, da cor informada
+     *         (as Brancas avançam para índices menores).
+     */
+    public static long pawnAttacksOf(boolean white, long pawns) {
+        return white ? ((pawns >>> 9) & ~FILE_H) | ((pawns >>> 7) & ~FILE_A)
+                     : ((pawns << 7) & ~FILE_H) | ((pawns << 9) & ~FILE_A);
+    }
+
+    /**
+     * Ataques de uma torre na casa informada, considerando as peças em {@code occupied}.
+     * O primeiro bloqueador de cada raio é incluído (pode ser uma captura ou uma peça amiga).
+     */
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASK[square]) * ROOK_MAGIC[square]) >>> ROOK_SHIFT[square]);
+        return ROOK_TABLE[square][index];
+    }
+
+    /**
+     * Ataques de um bispo na casa informada, considerando as peças em {@code occupied}.
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASK[square]) * BISHOP_MAGIC[square]) >>> BISHOP_SHIFT[square]);
+        return BISHOP_TABLE[square][index];
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return As casas estritamente entre {@code a} e {@code b}, ou 0 se não estiverem alinhadas.
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return A linha inteira (coluna, fileira ou diagonal) que passa por {@code a} e {@code b},
+     *         ou 0 se não estiverem alinhadas.
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    // --- Inicialização das tabelas ---
+
+    // Ataques de peças que dão um único passo em cada direção (cavalo, rei, peão).
+    private static long stepAttacks(int sq, int[][] deltas) {
+        long attacks = 0L;
+        for (int[] d : deltas) {
+            int r = row(sq) + d[0];
+            int c = column(sq) + d[1];
+            if (r >= 0 && r < 8 && c >= 0 && c < 8) attacks |= bit(square(r, c));
+        }
+        return attacks;
+    }
+
+    // Ataques "lentos" percorrendo os raios; usados apenas para preencher as tabelas mágicas.
+    private static long slidingAttacks(int sq, long occupied, int[][] dirs) {
+        long attacks = 0L;
+        for (int[] d : dirs) {
+            int r = row(sq) + d[0];
+            int c = column(sq) + d[1];
+            while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                long b = bit(square(r, c));
+                attacks |= b;
+                if ((occupied & b) != 0) break;
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return attacks;
+    }
+
+    // Casas do raio cuja ocupação influencia o ataque (a última casa de cada raio nunca importa).
+    private static long relevantMask(int sq, int[][] dirs) {
+        long mask = 0L;
+        for (int[] d : dirs) {
+            int r = row(sq) + d[0];
+            int c = column(sq) + d[1];
+            while (r + d[0] >= 0 && r + d[0] < 8 && c + d[1] >= 0 && c + d[1] < 8) {
+                mask |= bit(square(r, c));
+                r += d[0];
+                c += d[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Preenche a tabela de ataques de uma casa usando o número mágico fixo.
+     * Todas as ocupações possíveis da máscara são enumeradas (técnica "carry-rippler").
+     */
+    private static void initMagic(int sq, int[][] dirs, long[] masks, long[] magics, int[] shifts,
+                                  long[][] tables) {
+        long mask = relevantMask(sq, dirs);
+        int bits = Long.bitCount(mask);
+        long[] table = new long[1 << bits];
+        long subset = 0L;
+        do {
+            int index = (int) ((subset * magics[sq]) >>> (64 - bits));
+            long attacks = slidingAttacks(sq, subset, dirs);
+            if (table[index] != 0 && table[index] != attacks) {
+                throw new IllegalStateException("Número mágico inválido para a casa " + sq);
+            }
+            table[index] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+
+        masks[sq] = mask;
+        shifts[sq] = 64 - bits;
+        tables[sq] = table;
+    }
+}
@@ -1,6 +1,7 @@
 package model.board;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import model.pieces.Piece;
 
@@ -9,11 +10,57 @@ import model.pieces.Piece;
  * Esta classe gerencia a localização de todas as peças e fornece
  * métodos para manipular o tabuleiro, como colocar, mover e remover peças.
  * É uma classe central para a representação do estado do jogo (Model).
+ *
+ * Internamente o tabuleiro é mantido em bitboards: um long por tipo de peça e cor,
+ * mais as máscaras de ocupação de cada lado. Um vetor de 64 casas ("mailbox")
+ * guarda os objetos Piece para que {@link #get(Position)} continue em tempo constante.
+ *
+ * O tabuleiro também mantém mapas de ataque de cada lado, atualizados de forma
+ * incremental a cada peça colocada ou removida: quantas peças de cada cor atacam
+ * cada casa e o bitboard das casas atacadas. Assim "esta casa está atacada?" é uma
+ * consulta em tempo constante (xeque, roque, segurança do rei).
+ *
+ * Por fim, a casa de cada rei e uma lista compacta das peças de cada lado ficam em
+ * cache, permitindo percorrer as peças sem varrer as 64 casas nem alocar listas.
+ * A chave de Zobrist das peças (ver {@link Zobrist}), os totais de material + PST de
+ * meio-jogo e de final e a fase do jogo (ver {@link PieceSquareTables}) também são
+ * atualizados a cada peça colocada ou removida.
  */
 public class Board {
 
-    // A estrutura de dados principal: uma matriz 2D 8x8 para armazenar as peças.
-    private final Piece[][] grid = new Piece[8][8];
+    private static final int WHITE = 0, BLACK = 1;
+
+    // Mailbox: a peça de cada casa, indexada por linha * 8 + coluna.
+    private final Piece[] squares = new Piece[64];
+
+    // Um bitboard por tipo de peça e cor: índice = cor * 6 + tipo (ver constantes em Piece).
+    private final long[] pieceBB = new long[12];
+
+    // Ocupação por cor e ocupação total.
+    private final long[] colorBB = new long[2];
+    private long occupied;
+
+    // Ataques da peça em cada casa, número de atacantes por cor e casa, e casas atacadas por cor.
+    private final long[] pieceAttacks = new long[64];
+    private final int[][] attackCount = new int[2][64];
+    private final long[] attackMap = new long[2];
+
+    // Casa de cada rei (-1 se ausente) e lista compacta das peças de cada lado.
+    // listIndex guarda, para cada casa ocupada, a posição da peça na lista do seu lado,
+    // e listSquare o caminho inverso (a casa de cada entrada da lista).
+    private final int[] kingSquare = {-1, -1};
+    private final Piece[][] pieceList = new Piece[2][64];
+    private final int[][] listSquare = new int[2][64];
+    private final int[] pieceCount = new int[2];
+    private final int[] listIndex = new int[64];
+
+    // XOR das chaves de Zobrist de todas as peças no tabuleiro, e só dos peões.
+    private long zobristKey, pawnKey;
+
+    // Material + PST (Brancas menos Pretas) para o meio-jogo e para o final.
+    private int middlegameScore, endgameScore;
+    // Soma dos pesos de fase das peças (sem peões e reis) de ambos os lados.
+    private int phase;
 
     /**
      * Obtém a peça em uma determinada posição do tabuleiro.
@@ -22,7 +69,15 @@ public class Board {
      * @return O objeto Piece na posição, ou null se a casa estiver vazia ou a posição for inválida.
      */
     public Piece get(Position p) {
-        return (p.isValid()) ? grid[p.getRow()][p.getColumn()] : null;
+        return (p.isValid()) ? squares[p.index()] : null;
+    }
+
+    /**
+     * @param sq O índice da casa (0-63).
+     * @return A peça na casa, ou null se estiver vazia.
+     */
+    public Piece get(int sq) {
+        return squares[sq];
     }
 
     /**
@@ -34,12 +89,20 @@ public class Board {
      */
     public void placePiece(Piece piece, Position p) {
         if (!p.isValid()) return;
-        grid[p.getRow()][p.getColumn()] = piece;
+        placePiece(piece, p.index());
+    }
+
+    /**
+     * Versão de {@link #placePiece(Piece, Position)} que recebe o índice da casa (0-63).
+     */
+    public void placePiece(Piece piece, int sq) {
+        clearSquare(sq);
         if (piece != null) {
-            piece.setPosition(p);
+            setSquare(piece, sq);
+            piece.setPosition(Position.of(sq));
         }
     }
-    
+
     /**
      * Remove uma peça de uma posição, deixando a casa vazia.
      *
@@ -48,11 +111,16 @@ public class Board {
      */
     public Piece remove(Position p) {
         if (!p.isValid()) return null;
-        Piece piece = get(p);
-        grid[p.getRow()][p.getColumn()] = null;
-        return piece;
+        return clearSquare(p.index());
+    }
+
+    /**
+     * Versão de {@link #remove(Position)} que recebe o índice da casa (0-63).
+     */
+    public Piece remove(int sq) {
+        return clearSquare(sq);
     }
-    
+
     /**
      * Executa um movimento simples, movendo uma peça de uma posição para outra.
      *
@@ -64,16 +132,33 @@ public class Board {
         placePiece(piece, to);
     }
 
+    /**
+     * Versão de {@link #move(Position, Position)} com índices de casa (0-63).
+     */
+    public void move(int from, int to) {
+        placePiece(clearSquare(from), to);
+    }
+
     /**
      * Limpa o tabuleiro, removendo todas as peças.
      * Usado para iniciar um novo jogo.
      */
     public void clear() {
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                grid[r][c] = null;
-            }
-        }
+        Arrays.fill(squares, null);
+        Arrays.fill(pieceBB, 0L);
+        colorBB[WHITE] = colorBB[BLACK] = 0L;
+        occupied = 0L;
+        zobristKey = pawnKey = 0L;
+        middlegameScore = endgameScore = 0;
+        phase = 0;
+        Arrays.fill(pieceAttacks, 0L);
+        Arrays.fill(attackCount[WHITE], 0);
+        Arrays.fill(attackCount[BLACK], 0);
+        attackMap[WHITE] = attackMap[BLACK] = 0L;
+        kingSquare[WHITE] = kingSquare[BLACK] = -1;
+        Arrays.fill(pieceList[WHITE], null);
+        Arrays.fill(pieceList[BLACK], null);
+        pieceCount[WHITE] = pieceCount[BLACK] = 0;
     }
 
     /**
@@ -83,16 +168,148 @@ public class Board {
      * @return Uma lista contendo as peças da cor especificada.
      */
     public List<Piece> getPieces(boolean white) {
-        List<Piece> out = new ArrayList<>();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece pc = grid[r][c];
-                if (pc != null && pc.isWhite() == white) out.add(pc);
-            }
+        int color = white ? WHITE : BLACK;
+        List<Piece> out = new ArrayList<>(pieceCount[color]);
+        for (int i = 0; i < pieceCount[color]; i++) {
+            out.add(pieceList[color][i]);
         }
         return out;
     }
 
+    /**
+     * @return Quantas peças (incluindo o rei) a cor informada tem no tabuleiro.
+     */
+    public int pieceCount(boolean white) {
+        return pieceCount[white ? WHITE : BLACK];
+    }
+
+    /**
+     * Acesso sem alocação à lista de peças de um lado. Use junto com {@link #pieceCount}:
+     * {@code for (int i = 0; i < board.pieceCount(w); i++) board.getPiece(w, i)}.
+     * A ordem não é fixa: colocar ou remover peças pode reordenar a lista.
+     */
+    public Piece getPiece(boolean white, int index) {
+        return pieceList[white ? WHITE : BLACK][index];
+    }
+
+    /**
+     * @return A casa (0-63) do rei da cor informada, ou -1 se não houver rei.
+     */
+    public int kingSquare(boolean white) {
+        return kingSquare[white ? WHITE : BLACK];
+    }
+
+    // --- Acesso direto aos bitboards (usado pelos geradores de lances e pela IA) ---
+
+    /**
+     * @return O bitboard das peças de um tipo (Piece.PAWN ... Piece.KING) e cor.
+     */
+    public long pieces(boolean white, int type) {
+        return pieceBB[(white ? WHITE : BLACK) * 6 + type];
+    }
+
+    /**
+     * @return O bitboard de todas as peças de uma cor.
+     */
+    public long occupancy(boolean white) {
+        return colorBB[white ? WHITE : BLACK];
+    }
+
+    /**
+     * @return O bitboard de todas as casas ocupadas.
+     */
+    public long occupied() {
+        return occupied;
+    }
+
+    /**
+     * Consulta o mapa de ataques mantido incrementalmente.
+     *
+     * @param sq A casa (0-63).
+     * @param byWhite A cor dos atacantes.
+     * @return True se ao menos uma peça dessa cor ataca a casa.
+     */
+    public boolean isAttacked(int sq, boolean byWhite) {
+        return (attackMap[byWhite ? WHITE : BLACK] & Bitboards.bit(sq)) != 0;
+    }
+
+    /**
+     * @return Quantas peças da cor informada atacam a casa.
+     */
+    public int attackCount(int sq, boolean byWhite) {
+        return attackCount[byWhite ? WHITE : BLACK][sq];
+    }
+
+    /**
+     * @return O bitboard de todas as casas atacadas pela cor informada.
+     */
+    public long attackMap(boolean byWhite) {
+        return attackMap[byWhite ? WHITE : BLACK];
+    }
+
+    /**
+     * @return A chave de Zobrist das peças (sem vez, roques ou en passant; ver Game.zobristKey()).
+     */
+    public long zobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return A chave de Zobrist só dos peões, usada pela tabela de estrutura de peões da IA.
+     */
+    public long pawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * @return Material + PST de meio-jogo, Brancas menos Pretas.
+     */
+    public int middlegameScore() {
+        return middlegameScore;
+    }
+
+    /**
+     * @return Material + PST de final, Brancas menos Pretas.
+     */
+    public int endgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return A fase do jogo, de 0 (final) a {@link PieceSquareTables#MAX_PHASE} (meio-jogo).
+     *         Promoções podem levar a soma acima do máximo, então o valor é limitado.
+     */
+    public int phase() {
+        return Math.min(phase, PieceSquareTables.MAX_PHASE);
+    }
+
+    /**
+     * @return Material + PST interpolados pela fase do jogo, Brancas menos Pretas.
+     */
+    public int taperedScore() {
+        return PieceSquareTables.taper(middlegameScore, endgameScore, phase());
+    }
+
+    /**
+     * Calcula todas as peças de uma cor que atacam uma casa.
+     * Parte da própria casa: um peão, cavalo ou rei ataca a casa se estiver numa das casas que
+     * essa peça atacaria a partir dela; as deslizantes usam as tabelas mágicas com a ocupação
+     * informada (que pode diferir da real, por exemplo sem o rei para detectar raios-X).
+     *
+     * @param sq A casa (0-63).
+     * @param byWhite A cor dos atacantes.
+     * @param occupied A ocupação a considerar para bloquear as peças deslizantes.
+     * @return O bitboard das peças atacantes.
+     */
+    public long attackersTo(int sq, boolean byWhite, long occupied) {
+        long queens = pieces(byWhite, Piece.QUEEN);
+        return (Bitboards.pawnAttacks(!byWhite, sq) & pieces(byWhite, Piece.PAWN))
+             | (Bitboards.knightAttacks(sq) & pieces(byWhite, Piece.KNIGHT))
+             | (Bitboards.kingAttacks(sq) & pieces(byWhite, Piece.KING))
+             | (Bitboards.rookAttacks(sq, occupied) & (pieces(byWhite, Piece.ROOK) | queens))
+             | (Bitboards.bishopAttacks(sq, occupied) & (pieces(byWhite, Piece.BISHOP) | queens));
+    }
+
     /**
      * Cria uma cópia profunda (deep copy) do tabuleiro.
      * Este método é crucial para a IA, que precisa simular movimentos em um tabuleiro
@@ -102,22 +319,42 @@ public class Board {
      */
     public Board copy() {
         Board b = new Board();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                Piece p = grid[r][c];
-                if (p != null) {
-                    // Chama o método copyFor() de cada peça para criar uma nova instância da peça.
-                    b.placePiece(p.copyFor(b), new Position(r, c));
-                }
-            }
+        System.arraycopy(pieceBB, 0, b.pieceBB, 0, pieceBB.length);
+        b.colorBB[WHITE] = colorBB[WHITE];
+        b.colorBB[BLACK] = colorBB[BLACK];
+        b.occupied = occupied;
+        b.zobristKey = zobristKey;
+        b.pawnKey = pawnKey;
+        b.middlegameScore = middlegameScore;
+        b.endgameScore = endgameScore;
+        b.phase = phase;
+        System.arraycopy(pieceAttacks, 0, b.pieceAttacks, 0, 64);
+        System.arraycopy(attackCount[WHITE], 0, b.attackCount[WHITE], 0, 64);
+        System.arraycopy(attackCount[BLACK], 0, b.attackCount[BLACK], 0, 64);
+        b.attackMap[WHITE] = attackMap[WHITE];
+        b.attackMap[BLACK] = attackMap[BLACK];
+        b.kingSquare[WHITE] = kingSquare[WHITE];
+        b.kingSquare[BLACK] = kingSquare[BLACK];
+        b.pieceCount[WHITE] = pieceCount[WHITE];
+        b.pieceCount[BLACK] = pieceCount[BLACK];
+        System.arraycopy(listIndex, 0, b.listIndex, 0, 64);
+        System.arraycopy(listSquare[WHITE], 0, b.listSquare[WHITE], 0, 64);
+        System.arraycopy(listSquare[BLACK], 0, b.listSquare[BLACK], 0, 64);
+        for (long bb = occupied; bb != 0; bb &= bb - 1) {
+            int sq = Long.numberOfTrailingZeros(bb);
+            // Chama o método copyFor() de cada peça para criar uma nova instância da peça.
+            Piece clone = squares[sq].copyFor(b);
+            b.squares[sq] = clone;
+            b.pieceList[clone.isWhite() ? WHITE : BLACK][listIndex[sq]] = clone;
         }
         return b;
     }
-    
+
     /**
      * Gera uma representação da posição das peças no formato Forsyth-Edwards Notation (FEN).
      * Esta string é uma maneira padronizada de descrever uma posição de xadrez.
-     * É usada aqui para a regra de empate por repetição tripla.
+     * É a primeira parte da FEN completa gerada por Game.toFen(); a regra de repetição
+     * usa as chaves de Zobrist, não a FEN.
      *
      * @return Uma string FEN representando a disposição das peças.
      */
@@ -126,7 +363,7 @@ public class Board {
         for (int r = 0; r < 8; r++) {
             int empty = 0;
             for (int c = 0; c < 8; c++) {
-                Piece p = grid[r][c];
+                Piece p = squares[r * 8 + c];
                 if (p == null) {
                     empty++;
                 } else {
@@ -144,4 +381,105 @@ public class Board {
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+
+    // Liga a peça na casa em todos os bitboards (a casa deve estar vazia) e atualiza os ataques.
+    private void setSquare(Piece piece, int sq) {
+        long bit = Bitboards.bit(sq);
+        int color = piece.isWhite() ? WHITE : BLACK;
+        // As deslizantes que alcançam a casa passam a ser bloqueadas nela.
+        long sliders = slidersReaching(sq);
+        squares[sq] = piece;
+        pieceBB[color * 6 + piece.getType()] |= bit;
+        colorBB[color] |= bit;
+        occupied |= bit;
+        zobristKey ^= Zobrist.piece(piece.isWhite(), piece.getType(), sq);
+        if (piece.getType() == Piece.PAWN) pawnKey ^= Zobrist.piece(piece.isWhite(), Piece.PAWN, sq);
+        int sign = piece.isWhite() ? 1 : -1;
+        middlegameScore += sign * PieceSquareTables.middlegame(piece.isWhite(), piece.getType(), sq);
+        endgameScore += sign * PieceSquareTables.endgame(piece.isWhite(), piece.getType(), sq);
+        phase += PieceSquareTables.PHASE_WEIGHT[piece.getType()];
+        listIndex[sq] = pieceCount[color];
+        listSquare[color][pieceCount[color]] = sq;
+        pieceList[color][pieceCount[color]++] = piece;
+        if (piece.getType() == Piece.KING) kingSquare[color] = sq;
+        refreshAttacks(sliders);
+        setAttacks(sq, color, computeAttacks(piece.getType(), color, sq));
+    }
+
+    // Esvazia a casa em todos os bitboards, atualiza os ataques e retorna a peça que estava nela.
+    private Piece clearSquare(int sq) {
+        Piece piece = squares[sq];
+        if (piece == null) return null;
+        long bit = Bitboards.bit(sq);
+        int color = piece.isWhite() ? WHITE : BLACK;
+        setAttacks(sq, color, 0L);
+        squares[sq] = null;
+        pieceBB[color * 6 + piece.getType()] &= ~bit;
+        colorBB[color] &= ~bit;
+        occupied &= ~bit;
+        zobristKey ^= Zobrist.piece(piece.isWhite(), piece.getType(), sq);
+        if (piece.getType() == Piece.PAWN) pawnKey ^= Zobrist.piece(piece.isWhite(), Piece.PAWN, sq);
+        int sign = piece.isWhite() ? 1 : -1;
+        middlegameScore -= sign * PieceSquareTables.middlegame(piece.isWhite(), piece.getType(), sq);
+        endgameScore -= sign * PieceSquareTables.endgame(piece.isWhite(), piece.getType(), sq);
+        phase -= PieceSquareTables.PHASE_WEIGHT[piece.getType()];
+        // Remove da lista trocando com a última peça do lado (remoção em tempo constante).
+        int index = listIndex[sq];
+        int last = --pieceCount[color];
+        int lastSq = listSquare[color][last];
+        pieceList[color][index] = pieceList[color][last];
+        listSquare[color][index] = lastSq;
+        listIndex[lastSq] = index;
+        pieceList[color][last] = null;
+        if (piece.getType() == Piece.KING && kingSquare[color] == sq) kingSquare[color] = -1;
+        // As deslizantes que eram bloqueadas na casa agora atravessam o raio.
+        refreshAttacks(slidersReaching(sq));
+        return piece;
+    }
+
+    // Torres, bispos e damas (de ambas as cores) cujo raio alcança a casa.
+    private long slidersReaching(int sq) {
+        long queens = pieceBB[Piece.QUEEN] | pieceBB[6 + Piece.QUEEN];
+        long rooks = pieceBB[Piece.ROOK] | pieceBB[6 + Piece.ROOK] | queens;
+        long bishops = pieceBB[Piece.BISHOP] | pieceBB[6 + Piece.BISHOP] | queens;
+        return (Bitboards.rookAttacks(sq, occupied) & rooks)
+             | (Bitboards.bishopAttacks(sq, occupied) & bishops);
+    }
+
+    // Recalcula os ataques das peças informadas após uma mudança de ocupação.
+    private void refreshAttacks(long pieces) {
+        for (; pieces != 0; pieces &= pieces - 1) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            Piece p = squares[sq];
+            int color = p.isWhite() ? WHITE : BLACK;
+            setAttacks(sq, color, computeAttacks(p.getType(), color, sq));
+        }
+    }
+
+    private long computeAttacks(int type, int color, int sq) {
+        return switch (type) {
+            case Piece.PAWN -> Bitboards.pawnAttacks(color == WHITE, sq);
+            case Piece.KNIGHT -> Bitboards.knightAttacks(sq);
+            case Piece.BISHOP -> Bitboards.bishopAttacks(sq, occupied);
+            case Piece.ROOK -> Bitboards.rookAttacks(sq, occupied);
+            case Piece.QUEEN -> Bitboards.queenAttacks(sq, occupied);
+            default -> Bitboards.kingAttacks(sq);
+        };
+    }
+
+    // Troca os ataques registrados para a peça da casa, ajustando contadores e mapa apenas nas diferenças.
+    private void setAttacks(int sq, int color, long attacks) {
+        long old = pieceAttacks[sq];
+        if (old == attacks) return;
+        pieceAttacks[sq] = attacks;
+        int[] count = attackCount[color];
+        for (long added = attacks & ~old; added != 0; added &= added - 1) {
+            int t = Long.numberOfTrailingZeros(added);
+            if (count[t]++ == 0) attackMap[color] |= Bitboards.bit(t);
+        }
+        for (long removed = old & ~attacks; removed != 0; removed &= removed - 1) {
+            int t = Long.numberOfTrailingZeros(removed);
+            if (--count[t] == 0) attackMap[color] &= ~Bitboards.bit(t);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package model.board;
+
+import model.pieces.Piece;
+
+/**
+ * Valores de material e Piece-Square Tables (PST) usados pela avaliação da IA.
+ * As tabelas dão um bônus ou penalidade para a posição de cada peça: incentivam a dominar
+ * o centro, posicionar bem as peças e proteger o rei. Estão definidas do ponto de vista das
+ * Brancas (índice = linha * 8 + coluna, linha 0 = oitava fileira); para as Pretas as linhas
+ * são invertidas.
+ * <p>
+ * Cada peça tem um valor de meio-jogo e um de final (material + PST), com material e tabela
+ * próprios de cada fase para todos os tipos de peça. O {@link Board} soma
+ * esses valores de forma incremental a cada peça colocada ou removida, então a avaliação
+ * não precisa percorrer as peças. Também soma o peso de fase ({@link #PHASE_WEIGHT}) do
+ * material sem peões, usado para interpolar entre os dois totais (avaliação "tapered").
+ */
+public final class PieceSquareTables {
+
+    // Valor material de cada tipo de peça (índice = Piece.PAWN ... Piece.KING). É o valor de
+    // meio-jogo, usado também para ordenar capturas e na troca estática.
+    public static final int[] MATERIAL = {100, 320, 330, 500, 900, 20000};
+    // No final, peões e torres valem mais (promoção, colunas abertas) e os cavalos, menos.
+    public static final int[] MATERIAL_ENDGAME = {120, 290, 320, 540, 940, 20000};
+
+    // Peso de cada tipo de peça na fase do jogo: com todas as peças a fase vale MAX_PHASE
+    // (meio-jogo puro); sem cavalos, bispos, torres e damas vale 0 (final puro).
+    public static final int[] PHASE_WEIGHT = {0, 1, 1, 2, 4, 0};
+    public static final int MAX_PHASE = 24;
+
+    private static final int[] PAWN_TABLE = {
+        0,  0,  0,  0,  0,  0,  0,  0, 50, 50, 50, 50, 50, 50, 50, 50,
+        10, 10, 20, 30, 30, 20, 10, 10,  5,  5, 10, 25, 25, 10,  5,  5,
+         0,  0,  0, 20, 20,  0,  0,  0,  5, -5,-10,  0,  0,-10, -5,  5,
+         5, 10, 10,-20,-20, 10, 10,  5,  0,  0,  0,  0,  0,  0,  0,  0
+    };
+    // No final, peões avançados valem mais: estão perto da promoção e há menos peças para detê-los.
+    private static final int[] PAWN_TABLE_ENDGAME = {
+          0,  0,  0,  0,  0,  0,  0,  0, 80, 80, 80, 80, 80, 80, 80, 80,
+         50, 50, 50, 50, 50, 50, 50, 50, 30, 30, 30, 30, 30, 30, 30, 30,
+         15, 15, 15, 15, 15, 15, 15, 15,  5,  5,  5,  5,  5,  5,  5,  5,
+          0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0
+    };
+    private static final int[] KNIGHT_TABLE = {
+        -50,-40,-30,-30,-30,-30,-40,-50,-40,-20,  0,  0,  0,  0,-20,-40,
+        -30,  0, 10, 15, 15, 10,  0,-30,-30,  5, 15, 20, 20, 15,  5,-30,
+        -30,  0, 15, 20, 20, 15,  0,-30,-30,  5, 10, 15, 15, 10,  5,-30,
+        -40,-20,  0,  5,  5,  0,-20,-40,-50,-40,-30,-30,-30,-30,-40,-50,
+    };
+    private static final int[] BISHOP_TABLE = {
+        -20,-10,-10,-10,-10,-10,-10,-20,-10,  0,  0,  0,  0,  0,  0,-10,
+        -10,  0,  5, 10, 10,  5,  0,-10,-10,  5,  5, 10, 10,  5,  5,-10,
+        -10,  0, 10, 10, 10, 10,  0,-10,-10, 10, 10, 10, 10, 10, 10,-10,
+        -10,  5,  0,  0,  0,  0,  5,-10,-20,-10,-10,-10,-10,-10,-10,-20,
+    };
+    // No final, cavalos e bispos continuam preferindo o centro, com penalidades menores nas bordas.
+    private static final int[] KNIGHT_TABLE_ENDGAME = {
+        -40,-30,-20,-20,-20,-20,-30,-40,-30,-15, -5,  0,  0, -5,-15,-30,
+        -20, -5,  5, 10, 10,  5, -5,-20,-20,  0, 10, 15, 15, 10,  0,-20,
+        -20,  0, 10, 15, 15, 10,  0,-20,-20, -5,  5, 10, 10,  5, -5,-20,
+        -30,-15, -5,  0,  0, -5,-15,-30,-40,-30,-20,-20,-20,-20,-30,-40,
+    };
+    private static final int[] BISHOP_TABLE_ENDGAME = {
+        -15,-10, -5, -5, -5, -5,-10,-15,-10, -5,  0,  0,  0,  0, -5,-10,
+         -5,  0,  5,  5,  5,  5,  0, -5, -5,  0,  5, 10, 10,  5,  0, -5,
+         -5,  0,  5, 10, 10,  5,  0, -5, -5,  0,  5,  5,  5,  5,  0, -5,
+        -10, -5,  0,  0,  0,  0, -5,-10,-15,-10, -5, -5, -5, -5,-10,-15,
+    };
+    // Torres e damas não têm tabela de meio-jogo.
+    private static final int[] NO_TABLE = new int[64];
+    // Torre no final: a sétima fileira (onde ficam os peões e o rei adversários) é a melhor.
+    private static final int[] ROOK_TABLE_ENDGAME = {
+          5,  5,  5,  5,  5,  5,  5,  5, 15, 15, 15, 15, 15, 15, 15, 15,
+          0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,
+          0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,
+          0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,  0,
+    };
+    // Dama no final: centralizada, controla o tabuleiro todo e ajuda a dar mate.
+    private static final int[] QUEEN_TABLE_ENDGAME = {
+        -20,-10,-10, -5, -5,-10,-10,-20,-10,  0,  5,  5,  5,  5,  0,-10,
+        -10,  5, 10, 10, 10, 10,  5,-10, -5,  5, 10, 15, 15, 10,  5, -5,
+         -5,  5, 10, 15, 15, 10,  5, -5,-10,  5, 10, 10, 10, 10,  5,-10,
+        -10,  0,  5,  5,  5,  5,  0,-10,-20,-10,-10, -5, -5,-10,-10,-20,
+    };
+    // Tabela de Rei para meio de jogo, priorizando a segurança e o roque.
+    private static final int[] KING_TABLE_MIDDLEGAME = {
+        -30,-40,-40,-50,-50,-40,-40,-30,-30,-40,-40,-50,-50,-40,-40,-30,
+        -30,-40,-40,-50,-50,-40,-40,-30,-30,-40,-40,-50,-50,-40,-40,-30,
+        -20,-30,-30,-40,-40,-30,-30,-20,-10,-20,-20,-20,-20,-20,-20,-10,
+         20, 20,  0,  0,  0,  0, 20, 20, 20, 30, 10,  0,  0, 10, 30, 20
+    };
+    // Tabela de Rei para final de jogo, incentivando o rei a se tornar uma peça ativa e centralizada.
+    private static final int[] KING_TABLE_ENDGAME = {
+        -50,-40,-30,-20,-20,-30,-40,-50, -30,-20,-10,  0,  0,-10,-20,-30,
+        -30,-10, 20, 30, 30, 20,-10,-30, -30,-10, 30, 40, 40, 30,-10,-30,
+        -30,-10, 30, 40, 40, 30,-10,-30, -30,-10, 20, 30, 30, 20,-10,-30,
+        -30,-20,-10,  0,  0,-10,-20,-30, -50,-40,-30,-20,-20,-30,-40,-50,
+    };
+
+    // Material + PST por [tipo][casa], do ponto de vista das Brancas.
+    private static final int[][] MIDDLEGAME = new int[6][64];
+    private static final int[][] ENDGAME = new int[6][64];
+
+    static {
+        int[][] mg = {PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, NO_TABLE, NO_TABLE, KING_TABLE_MIDDLEGAME};
+        int[][] eg = {PAWN_TABLE_ENDGAME, KNIGHT_TABLE_ENDGAME, BISHOP_TABLE_ENDGAME,
+                      ROOK_TABLE_ENDGAME, QUEEN_TABLE_ENDGAME, KING_TABLE_ENDGAME};
+        for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+            for (int sq = 0; sq < 64; sq++) {
+                MIDDLEGAME[type][sq] = MATERIAL[type] + mg[type][sq];
+                ENDGAME[type][sq] = MATERIAL_ENDGAME[type] + eg[type][sq];
+            }
+        }
+    }
+
+    private PieceSquareTables() {}
+
+    /**
+     * Interpola um par de pontuações pela fase do jogo.
+     *
+     * @param phase A fase, de 0 (final) a {@link #MAX_PHASE} (meio-jogo).
+     */
+    public static int taper(int middlegame, int endgame, int phase) {
+        return (middlegame * phase + endgame * (MAX_PHASE - phase)) / MAX_PHASE;
+    }
+
+    /**
+     * @return Material + PST de meio-jogo da peça na casa (positivo, do ponto de vista da própria cor).
+     */
+    public static int middlegame(boolean white, int type, int sq) {
+        return MIDDLEGAME[type][white ? sq : sq ^ 56];
+    }
+
+    /**
+     * @return Material + PST de final da peça na casa (positivo, do ponto de vista da própria cor).
+     */
+    public static int endgame(boolean white, int type, int sq) {
+        return ENDGAME[type][white ? sq : sq ^ 56];
+    }
+}
@@ -1,12 +1,14 @@
 package model.board;
 
-import java.util.Objects;
-
 /**
  * Representa uma coordenada (linha e coluna) no tabuleiro de xadrez.
  * Esta é uma classe imutável, o que significa que seus valores de linha e coluna
  * não podem ser alterados após a criação do objeto. Isso a torna segura para uso
  * em várias partes do sistema sem risco de modificação acidental.
+ *
+ * As 64 casas do tabuleiro são instâncias canônicas pré-criadas (flyweight), obtidas com
+ * {@link #of(int, int)} ou {@link #of(int)}; nenhum laço do jogo precisa alocar coordenadas.
+ * Como cada casa válida tem uma única instância, a igualdade é uma comparação de identidade.
  */
 public final class Position {
 
@@ -17,15 +19,42 @@ public final class Position {
     // A coluna no tabuleiro, com 0 representando a coluna 'a' e 7 a coluna 'h'.
     private final int column;
 
+    // Tabela das 64 casas, indexada por linha * 8 + coluna.
+    private static final Position[] SQUARES = new Position[64];
+
+    static {
+        for (int i = 0; i < 64; i++) {
+            SQUARES[i] = new Position(i >>> 3, i & 7);
+        }
+    }
+
+    private Position(int row, int column) {
+        this.row = row;
+        this.column = column;
+    }
+
     /**
-     * Constrói um objeto Position com a linha e coluna especificadas.
+     * Obtém a posição com a linha e coluna especificadas.
+     * Para coordenadas fora do tabuleiro devolve uma instância nova (não canônica), útil
+     * apenas para ser testada com {@link #isValid()}.
      *
      * @param row    A linha (0-7).
      * @param column A coluna (0-7).
+     * @return A instância canônica da casa.
      */
-    public Position(int row, int column) {
-        this.row = row;
-        this.column = column;
+    public static Position of(int row, int column) {
+        if (row >= 0 && row < 8 && column >= 0 && column < 8) {
+            return SQUARES[row * 8 + column];
+        }
+        return new Position(row, column);
+    }
+
+    /**
+     * @param index O índice da casa (0-63), no mesmo formato dos bitboards.
+     * @return A instância canônica da casa.
+     */
+    public static Position of(int index) {
+        return SQUARES[index];
     }
 
     /**
@@ -38,6 +67,11 @@ public final class Position {
      */
     public int getColumn() { return column; }
 
+    /**
+     * @return O índice da casa (linha * 8 + coluna), usado pelos bitboards.
+     */
+    public int index() { return row * 8 + column; }
+
     /**
      * Valida se a posição está dentro dos limites do tabuleiro de xadrez (8x8).
      *
@@ -49,25 +83,20 @@ public final class Position {
 
     /**
      * Compara este objeto Position com outro para verificar se representam a mesma casa.
-     * É essencial sobrescrever este método para que coleções (como Listas e Mapas)
-     * possam comparar posições corretamente.
+     * Como toda casa válida tem uma única instância, basta comparar as referências.
+     * (Posições fora do tabuleiro não são canônicas e só são iguais a si mesmas.)
      */
     @Override
     public boolean equals(Object o) {
-        if (this == o) return true;
-        if (!(o instanceof Position)) return false;
-        Position that = (Position) o;
-        return row == that.row && column == that.column;
+        return this == o;
     }
 
     /**
-     * Gera um código hash para o objeto Position.
-     * É importante sobrescrever este método junto com `equals()` para garantir o
-     * funcionamento correto de estruturas de dados baseadas em hash, como HashMap.
+     * Gera um código hash para o objeto Position: o próprio índice da casa.
      */
     @Override
     public int hashCode() {
-        return Objects.hash(row, column);
+        return index();
     }
 
     /**
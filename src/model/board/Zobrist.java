@@ -0,0 +1,73 @@
+package model.board;
+
+/**
+ * Chaves de Zobrist: um número aleatório de 64 bits para cada (peça, cor, casa), para cada
+ * combinação de direitos de roque, para cada coluna de en passant e para a vez das Pretas.
+ * A chave de uma posição é o XOR das chaves dos seus elementos, o que permite atualizá-la
+ * de forma incremental: colocar ou retirar uma peça é um único XOR.
+ * <p>
+ * Os números vêm de um gerador com semente fixa, então as chaves são as mesmas em toda execução.
+ */
+public final class Zobrist {
+
+    // Índice da peça = cor * 6 + tipo (igual aos bitboards do Board), depois a casa (0-63).
+    private static final long[] PIECE = new long[12 * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    // Estado do gerador SplitMix64 usado só na inicialização das chaves.
+    private static long seed = 0x5EED_2B15_7C0A_1234L;
+
+    static {
+        for (int i = 0; i < PIECE.length; i++) PIECE[i] = next();
+        // Cada direito de roque tem uma chave; a de uma combinação é o XOR das chaves dos seus bits.
+        long[] rights = new long[4];
+        for (int i = 0; i < 4; i++) rights[i] = next();
+        for (int mask = 0; mask < 16; mask++) {
+            for (int i = 0; i < 4; i++) {
+                if ((mask & (1 << i)) != 0) CASTLING[mask] ^= rights[i];
+            }
+        }
+        for (int i = 0; i < 8; i++) EN_PASSANT[i] = next();
+        BLACK_TO_MOVE = next();
+    }
+
+    private Zobrist() {}
+
+    // SplitMix64: o estado avança pela constante de ouro e a saída é uma mistura do novo estado
+    // (a saída nunca volta a ser usada como estado).
+    private static long next() {
+        long z = seed += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @param white A cor da peça.
+     * @param type O tipo da peça (Piece.PAWN ... Piece.KING).
+     * @param sq A casa (0-63).
+     */
+    public static long piece(boolean white, int type, int sq) {
+        return PIECE[((white ? 0 : 6) + type) * 64 + sq];
+    }
+
+    /**
+     * @param rights Os direitos de roque (bits Game.CASTLE_*).
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param column A coluna (0-7) do alvo de en passant.
+     */
+    public static long enPassant(int column) {
+        return EN_PASSANT[column];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
@@ -13,12 +13,15 @@ public class King extends Piece {
     @Override
     public String getSymbol() { return "K"; }
 
+    @Override
+    public int getType() { return KING; }
+
     @Override
     public Piece copyFor(Board newBoard) {
         King k = new King(newBoard, isWhite);
         k.moved = this.moved;
         if (this.position != null) {
-            k.setPosition(new Position(this.position.getRow(), this.position.getColumn()));
+            k.setPosition(this.position);
         }
         return k;
     }
@@ -35,7 +38,7 @@ public class King extends Piece {
                 int c = position.getColumn() + dc;
                 if (r < 0 || r > 7 || c < 0 || c > 7) continue;
 
-                Position to = new Position(r, c);
+                Position to = Position.of(r, c);
                 Piece occ = board.get(to);
                 if (occ == null || occ.isWhite() != this.isWhite) {
                     moves.add(to);
@@ -62,7 +65,7 @@ public class King extends Piece {
                 int r = position.getRow() + dr;
                 int c = position.getColumn() + dc;
                 if (r < 0 || r > 7 || c < 0 || c > 7) continue;
-                attacks.add(new Position(r, c));
+                attacks.add(Position.of(r, c));
             }
         }
         return attacks;
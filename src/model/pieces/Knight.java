@@ -11,12 +11,15 @@ public class Knight extends Piece {
     @Override
     public String getSymbol() { return "N"; }
 
+    @Override
+    public int getType() { return KNIGHT; }
+
     @Override
     public Piece copyFor(Board newBoard) {
         Knight clone = new Knight(newBoard, isWhite);
         clone.moved = this.moved;
         if (this.position != null) {
-            clone.setPosition(new Position(this.position.getRow(), this.position.getColumn()));
+            clone.setPosition(this.position);
         }
         return clone;
     }
@@ -36,7 +39,7 @@ public class Knight extends Piece {
             int c = position.getColumn() + d[1];
             if (r < 0 || r > 7 || c < 0 || c > 7) continue;
 
-            Position to = new Position(r, c);
+            Position to = Position.of(r, c);
             Piece occ = board.get(to);
             if (occ == null || occ.isWhite() != this.isWhite) {
                 moves.add(to);
@@ -8,6 +8,10 @@ import java.util.*;
 
 
 public abstract class Piece {
+// Índices de tipo usados pelos bitboards do Board (mesma ordem de valor crescente).
+public static final int PAWN = 0, KNIGHT = 1, BISHOP = 2, ROOK = 3, QUEEN = 4, KING = 5;
+
+
 protected Position position;
 protected final boolean isWhite;
 protected final Board board;
@@ -33,20 +37,34 @@ public List<Position> getAttacks(){ return getPossibleMoves(); }
 
 
 public abstract String getSymbol(); // K,Q,R,B,N,P
+public abstract int getType(); // PAWN..KING
 
 
 // Fábrica de cópia para outro board
 public abstract Piece copyFor(Board newBoard);
 
 
-protected boolean empty(int r, int c){ return new Position(r,c).isValid() && board.get(new Position(r,c))==null; }
+protected boolean empty(int r, int c){ Position p = Position.of(r,c); return p.isValid() && board.get(p)==null; }
 protected boolean enemy(int r, int c){
-Position p = new Position(r,c);
+Position p = Position.of(r,c);
 if(!p.isValid()) return false; Piece q = board.get(p);
 return q!=null && q.isWhite()!=this.isWhite;
 }
 protected void addIfFreeOrEnemy(List<Position> list, int r, int c){
-Position p = new Position(r,c); if(!p.isValid()) return;
+Position p = Position.of(r,c); if(!p.isValid()) return;
 var q = board.get(p); if(q==null || q.isWhite()!=this.isWhite) list.add(p);
 }
+
+
+// Índice (0-63) da casa atual da peça, no formato usado pelos bitboards.
+protected int square(){ return position.index(); }
+// Converte um bitboard de casas de destino em uma lista de posições.
+protected List<Position> toPositions(long targets){
+List<Position> list = new ArrayList<>(Long.bitCount(targets));
+for(long bb = targets; bb != 0; bb &= bb - 1){
+int sq = Long.numberOfTrailingZeros(bb);
+list.add(Position.of(sq));
+}
+return list;
+}
 }
\ No newline at end of file
@@ -2,8 +2,13 @@ package view;
 
 import controller.AIController;
 import controller.Game;
+import controller.OpeningBook;
+import controller.Tablebase;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import javax.swing.*;
@@ -78,6 +83,8 @@ public class ChessGUI extends JFrame {
 
         this.game = new Game();
         this.aiController = new AIController();
+        loadOpeningBook();
+        loadTablebases();
         
         showGameSetupDialog(); // Exibe o diálogo de configuração inicial.
 
@@ -97,7 +104,7 @@ public class ChessGUI extends JFrame {
         // Inicializa os 64 botões que representam as casas do tabuleiro.
         for (int r = 0; r < 8; r++) {
             for (int c = 0; c < 8; c++) {
-                Position currentPos = new Position(r, c);
+                Position currentPos = Position.of(r, c);
                 squares[r][c] = new JButton();
                 squares[r][c].setOpaque(true);
                 squares[r][c].setBorder(null);
@@ -236,6 +243,28 @@ public class ChessGUI extends JFrame {
         return button;
     }
     
+    /**
+     * Carrega o livro de aberturas Polyglot de 'resources/book.bin', se existir.
+     * Sem o arquivo a IA simplesmente busca desde o primeiro lance.
+     */
+    private void loadOpeningBook() {
+        Path file = Path.of("resources", "book.bin");
+        if (!Files.isRegularFile(file)) return;
+        try {
+            aiController.setOpeningBook(OpeningBook.open(file));
+        } catch (IOException e) {
+            System.err.println("Erro ao abrir o livro de aberturas '" + file + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Usa as tabelas de finais da pasta 'tablebases', se existir (geradas por controller.TablebaseGenerator).
+     */
+    private void loadTablebases() {
+        Path directory = Path.of("tablebases");
+        if (Files.isDirectory(directory)) aiController.setTablebase(Tablebase.open(directory));
+    }
+
     /**
      * Exibe um diálogo modal para o jogador configurar o modo de jogo (cor, vs IA ou vs Humano).
      */
@@ -288,6 +317,7 @@ public class ChessGUI extends JFrame {
     private void doNewGame() {
         showGameSetupDialog();
         game.newGame();
+        aiController.clearHash(); // Posições da partida anterior não servem mais.
         // Reseta o estado da UI para um novo jogo.
         selectedPos = null;
         legalMovesForSelected.clear();
@@ -324,7 +354,7 @@ public class ChessGUI extends JFrame {
         if (game.isGameOver() || aiThinking) return;
 
         // Converte a posição da GUI para a posição do modelo, caso o tabuleiro esteja invertido.
-        Position modelPos = isBoardFlipped ? new Position(7 - guiPos.getRow(), 7 - guiPos.getColumn()) : guiPos;
+        Position modelPos = isBoardFlipped ? Position.of(7 - guiPos.getRow(), 7 - guiPos.getColumn()) : guiPos;
         
         // Impede que o jogador jogue fora da sua vez.
         if (!isPvpMode && game.whiteToMove() != playerIsWhite) return;
@@ -381,13 +411,13 @@ public class ChessGUI extends JFrame {
      */
     private void onSquareHover(Position guiPos, boolean isEntering) {
         if (game.isGameOver() || aiThinking || selectedPos != null) return;
-        Position modelPos = isBoardFlipped ? new Position(7 - guiPos.getRow(), 7 - guiPos.getColumn()) : guiPos;
+        Position modelPos = isBoardFlipped ? Position.of(7 - guiPos.getRow(), 7 - guiPos.getColumn()) : guiPos;
         Piece pieceOnSquare = game.board().get(modelPos);
         if (isEntering && pieceOnSquare != null && pieceOnSquare.isWhite() == game.whiteToMove()) {
             // Se o mouse entra em uma casa com uma peça do jogador da vez, destaca seus movimentos.
             List<Position> moves = game.legalMovesFrom(modelPos);
             for (Position move : moves) {
-                Position targetGuiPos = isBoardFlipped ? new Position(7 - move.getRow(), 7 - move.getColumn()) : move;
+                Position targetGuiPos = isBoardFlipped ? Position.of(7 - move.getRow(), 7 - move.getColumn()) : move;
                 squares[targetGuiPos.getRow()][targetGuiPos.getColumn()].setBackground(blend(getSquareBaseColor(targetGuiPos), COR_DESTAQUE_HOVER));
             }
         } else {
@@ -431,10 +461,14 @@ public class ChessGUI extends JFrame {
             aiController.findBestMove(game, timeLimit, difficultyIndex, (bestMove) -> {
                 if (bestMove != null) {
                     boolean wasCapture = game.board().get(bestMove.to) != null;
-                    game.move(bestMove.from, bestMove.to, null);
+                    game.move(bestMove.from, bestMove.to, bestMove.promotion);
                     lastFrom = bestMove.from;
                     lastTo = bestMove.to;
                     playSoundForMove(wasCapture, game.inCheck(game.whiteToMove()));
+
+                    // Estatísticas da busca na dica do rótulo de status.
+                    AIController.SearchStats stats = aiController.getLastSearchStats();
+                    statusLabel.setToolTipText(stats != null ? stats.summary() : "Lance do livro de aberturas");
                 }
                 aiThinking = false;
                 refreshAll();
@@ -475,12 +509,12 @@ public class ChessGUI extends JFrame {
 
         for (int r = 0; r < 8; r++) {
             for (int c = 0; c < 8; c++) {
-                Position guiPos = new Position(r, c);
+                Position guiPos = Position.of(r, c);
                 JButton b = squares[r][c];
                 b.setBackground(getSquareBaseColor(guiPos));
                 b.setBorder(null);
 
-                Position modelPos = isBoardFlipped ? new Position(7 - r, 7 - c) : guiPos;
+                Position modelPos = isBoardFlipped ? Position.of(7 - r, 7 - c) : guiPos;
                 
                 // Aplica destaques para xeque, último movimento, seleção e movimentos legais.
                 if (modelPos.equals(kingInCheck)) {